@@ -28,7 +28,20 @@ public class LoggingAspect {
     public void service() {
     }
 
-    @Around("controller() || service()")
+    // Excluded: mail body rendering is called once per recipient and returns the whole HTML body,
+    // so logging it would dominate the render cost during monthly report runs
+    @Pointcut("within(kopo.newproject.service.impl.MailTemplateRenderer)")
+    public void mailTemplateRenderer() {
+    }
+
+    // Excluded: queued mails and archived reports carry the whole rendered HTML body for every recipient,
+    // so logging their arguments/results would write the monthly report run to the log once more
+    @Pointcut("execution(* kopo.newproject.service.impl.MailService.enqueueMail*(..))"
+            + " || within(kopo.newproject.service.impl.ReportArchiveService)")
+    public void renderedMailBodies() {
+    }
+
+    @Around("(controller() || service()) && !mailTemplateRenderer() && !renderedMailBodies()")
     public Object logAround(ProceedingJoinPoint joinPoint) throws Throwable {
         long startTime = System.currentTimeMillis();
 
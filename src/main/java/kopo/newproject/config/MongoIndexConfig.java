@@ -0,0 +1,85 @@
+package kopo.newproject.config;
+
+import kopo.newproject.repository.entity.mongo.AIAnalysisEntity;
+import kopo.newproject.repository.entity.mongo.AggregatedSpendingEntity;
+import kopo.newproject.repository.entity.mongo.AnalysisJobEntity;
+import kopo.newproject.repository.entity.mongo.CohortMembershipEntity;
+import kopo.newproject.repository.entity.mongo.SpendingEntity;
+import kopo.newproject.repository.entity.mongo.SpendingRollupEntity;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 엔티티에 선언된 MongoDB 인덱스를 애플리케이션 시작 시 생성하고 존재 여부를 검증합니다.
+ * (spring.data.mongodb.auto-index-creation 설정에 의존하지 않음)
+ */
+@Slf4j
+@Configuration
+@RequiredArgsConstructor
+public class MongoIndexConfig {
+
+    // 인덱스를 관리할 Mongo 엔티티 목록
+    private static final List<Class<?>> INDEXED_ENTITIES = List.of(
+            SpendingEntity.class,
+            SpendingRollupEntity.class,
+            AIAnalysisEntity.class,
+            AnalysisJobEntity.class,
+            AggregatedSpendingEntity.class,
+            CohortMembershipEntity.class
+    );
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoMappingContext mongoMappingContext;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexes() {
+        IndexResolver resolver = new MongoPersistentEntityIndexResolver(mongoMappingContext);
+
+        for (Class<?> entityClass : INDEXED_ENTITIES) {
+            IndexOperations indexOps = mongoTemplate.indexOps(entityClass);
+
+            for (IndexDefinition definition : resolver.resolveIndexFor(entityClass)) {
+                try {
+                    indexOps.ensureIndex(definition);
+                } catch (Exception e) {
+                    // 같은 키에 다른 이름/옵션의 인덱스가 수동으로 만들어진 경우 등
+                    log.error("Failed to ensure index {} on {}: {}", definition.getIndexKeys(),
+                            mongoTemplate.getCollectionName(entityClass), e.getMessage());
+                }
+            }
+
+            verifyIndexes(entityClass, resolver, indexOps);
+        }
+    }
+
+    // 선언된 인덱스가 실제 컬렉션에 모두 존재하는지 확인
+    private void verifyIndexes(Class<?> entityClass, IndexResolver resolver, IndexOperations indexOps) {
+        Set<String> existing = indexOps.getIndexInfo().stream()
+                .map(IndexInfo::getName)
+                .collect(Collectors.toSet());
+
+        String collection = mongoTemplate.getCollectionName(entityClass);
+        for (IndexDefinition definition : resolver.resolveIndexFor(entityClass)) {
+            String name = definition.getIndexOptions().getString("name");
+            if (name != null && !existing.contains(name)) {
+                log.error("Missing index '{}' {} on collection '{}'", name, definition.getIndexKeys(), collection);
+            } else {
+                log.info("Verified index '{}' on collection '{}'", name, collection);
+            }
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package kopo.newproject.config;
 
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.http.HttpServletResponse;
 import kopo.newproject.security.CustomUserDetailsService;
 import lombok.RequiredArgsConstructor;
@@ -56,6 +57,9 @@ public class SecurityConfig {
                 )
                 // 2. URL별 권한 접근 제어
                 .authorizeHttpRequests(auth -> auth
+                        // SSE 등 비동기 응답의 재디스패치는 최초 요청에서 이미 인가됨
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                         // 정적 자원 (CSS, JS, 이미지 등) - 무조건 허용
                         .requestMatchers("/css/**", "/js/**", "/images/**").permitAll()
 
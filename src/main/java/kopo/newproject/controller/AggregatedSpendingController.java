@@ -1,9 +1,12 @@
 package kopo.newproject.controller;
 
-import kopo.newproject.repository.entity.mongo.AggregatedSpendingEntity;
+import kopo.newproject.dto.CohortComparisonDTO;
 import kopo.newproject.service.IAggregatedSpendingService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -23,21 +26,30 @@ public class AggregatedSpendingController {
 
     private final IAggregatedSpendingService aggregatedSpendingService;
 
+    private String getCurrentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+
     /**
      * 특정 성별 및 연령대의 평균 소비 데이터와 비교하기 위한 엔드포인트
+     * 카테고리별 평균과 함께 분위수(p25/p50/p75/p90) 및 로그인 사용자의 백분위를 반환합니다.
      * @param gender 비교할 성별
      * @param ageGroup 비교할 연령대
      * @return 집계된 소비 데이터 (없을 경우 404 Not Found)
      */
     @GetMapping("/compare")
-    public ResponseEntity<AggregatedSpendingEntity> getAggregatedSpendingForCompare(
+    public ResponseEntity<CohortComparisonDTO> getAggregatedSpendingForCompare(
             @RequestParam("gender") String gender,
             @RequestParam("ageGroup") String ageGroup) {
         log.info("START: getAggregatedSpendingForCompare - gender: {}, ageGroup: {}", gender, ageGroup);
 
         try {
             // 서비스 호출하여 데이터 조회
-            AggregatedSpendingEntity aggregatedSpending = aggregatedSpendingService.getAggregatedSpendingByGroup(gender, ageGroup);
+            CohortComparisonDTO aggregatedSpending = aggregatedSpendingService.compareWithGroup(getCurrentUserId(), gender, ageGroup);
 
             // 데이터 존재 여부 확인
             if (aggregatedSpending == null) {
@@ -45,7 +57,7 @@ public class AggregatedSpendingController {
                 return ResponseEntity.notFound().build(); // 데이터가 없으면 404 응답
             }
 
-            log.info("SUCCESS: Found aggregated spending data with ID: {}", aggregatedSpending.getId());
+            log.info("SUCCESS: Found aggregated spending data with ID: {}", aggregatedSpending.id());
             return ResponseEntity.ok(aggregatedSpending); // 성공 시 200 OK와 함께 데이터 반환
 
         } catch (Exception e) {
@@ -1,17 +1,25 @@
 package kopo.newproject.controller;
 
 import kopo.newproject.dto.PredictionDTO;
+import kopo.newproject.repository.entity.mongo.AnalysisJobEntity;
 import kopo.newproject.service.IAIAnalysisService;
+import kopo.newproject.service.impl.AnalysisJobService;
 import kopo.newproject.service.impl.AnalysisPreprocessorService;
+import kopo.newproject.service.impl.AnalysisRateLimiter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import java.net.URI;
 import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/analysis")
@@ -22,24 +30,84 @@ public class AnalysisAPIController {
 
     private final IAIAnalysisService aiAnalysisService;
     private final AnalysisPreprocessorService preprocessorService;
+    private final AnalysisJobService analysisJobService;
+    private final AnalysisRateLimiter analysisRateLimiter;
 
     private String getCurrentUserId() {
         return SecurityContextHolder.getContext().getAuthentication().getName();
     }
 
+    // 요청 제한에 걸린 경우 429 + Retry-After(초)
+    private ResponseEntity.BodyBuilder tooManyRequests(AnalysisRateLimiter.Decision decision) {
+        log.info("AI 분석 요청 제한 (retryAfter={}s): {}", decision.retryAfterSeconds(), decision.message());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(decision.retryAfterSeconds()));
+    }
+
+    // 분석 작업을 등록하고 202 와 작업 ID 를 반환 (결과는 /jobs/{jobId} 폴링, /jobs/{jobId}/events 또는 /jobs/{jobId}/stream SSE 로 수신)
+    // force=true 이면 동일 입력의 기존 결과가 있어도 다시 분석
     @PostMapping("/{yearMonth}")
-    public ResponseEntity<String> analyzeSpending(@PathVariable String yearMonth) {
+    public ResponseEntity<?> analyzeSpending(@PathVariable String yearMonth,
+                                             @RequestParam(defaultValue = "false") boolean force) {
         try {
             String userId = getCurrentUserId(); // 서버에서 사용자 판별
-            log.info("📥 [AI 분석 요청] userId={}, month={}", userId, yearMonth);
-            String result = aiAnalysisService.analyze(userId, yearMonth);
-            return ResponseEntity.ok(result);
+            log.info("📥 [AI 분석 요청] userId={}, month={}, force={}", userId, yearMonth, force);
+            YearMonth.parse(yearMonth); // 형식 검증
+            AnalysisRateLimiter.Decision decision = analysisRateLimiter.tryAcquire(userId);
+            if (!decision.allowed()) {
+                return tooManyRequests(decision).body("❌ " + decision.message());
+            }
+            AnalysisJobEntity job = analysisJobService.submit(userId, yearMonth, force);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/analysis/jobs/" + job.getId()))
+                    .body(job);
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().body("❌ 잘못된 월 형식입니다. (yyyy-MM)");
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("❌ 분석 요청이 많아 잠시 후 다시 시도해주세요.");
         } catch (Exception e) {
-            log.error("❌ 분석 중 오류 발생: {}", e.getMessage(), e);
+            log.error("❌ 분석 요청 중 오류 발생: {}", e.getMessage(), e);
             return ResponseEntity.internalServerError().body("❌ 분석 실패: " + e.getMessage());
         }
     }
 
+    // 분석 작업 상태 조회 (완료 시 result 포함)
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<?> getAnalysisJob(@PathVariable String jobId) {
+        try {
+            AnalysisJobEntity job = analysisJobService.getJob(getCurrentUserId(), jobId);
+            if (job == null) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("분석 작업을 찾을 수 없습니다.");
+            }
+            return ResponseEntity.ok(job);
+        } catch (Exception e) {
+            log.error("❌ 분석 작업 조회 실패: {}", e.getMessage(), e);
+            return ResponseEntity.internalServerError().body("❌ 조회 실패: " + e.getMessage());
+        }
+    }
+
+    // 분석 작업 완료 이벤트 구독 (SSE, 이벤트 이름: complete)
+    @GetMapping(value = "/jobs/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<?> subscribeAnalysisJob(@PathVariable String jobId) {
+        AnalysisJobEntity job = analysisJobService.getJob(getCurrentUserId(), jobId);
+        if (job == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+        return ResponseEntity.ok(analysisJobService.subscribe(job));
+    }
+
+    // 분석 작업 진행 스트림 (SSE, 이벤트 이름: token → complete, 재시도 시 reset)
+    // 토큰이 생성되는 대로 전달되므로 전체 응답을 기다리지 않고 바로 표시 가능
+    // 분석 실행은 작업 등록(POST, CSRF 보호/요청 제한 적용)에서만 시작되며, 이 GET 은 진행 상황을 읽기만 함
+    @GetMapping(value = "/jobs/{jobId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<?> streamAnalysisJob(@PathVariable String jobId) {
+        AnalysisJobEntity job = analysisJobService.getJob(getCurrentUserId(), jobId);
+        if (job == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+        return ResponseEntity.ok(analysisJobService.subscribeTokens(job));
+    }
+
     // 월별 원본 소비 데이터 조회 (카테고리별 합계)
     @GetMapping("/{yearMonth}/raw-spending")
     public ResponseEntity<?> getRawSpendingByMonth(@PathVariable String yearMonth) {
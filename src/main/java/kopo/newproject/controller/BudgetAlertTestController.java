@@ -1,5 +1,7 @@
 package kopo.newproject.controller;
 
+import kopo.newproject.dto.BudgetAlertRunStatsDTO;
+import kopo.newproject.dto.ReportRunProgressDTO;
 import kopo.newproject.repository.entity.jpa.UserInfoEntity;
 import kopo.newproject.repository.entity.mongo.SpendingEntity;
 import kopo.newproject.repository.jpa.UserInfoRepository;
@@ -7,6 +9,7 @@ import kopo.newproject.repository.mongo.SpendingRepository;
 import kopo.newproject.service.IReportService;
 import kopo.newproject.service.impl.BudgetAlertService;
 import kopo.newproject.service.impl.BudgetService;
+import kopo.newproject.service.impl.SpendingRollupService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -20,6 +23,8 @@ import org.slf4j.LoggerFactory;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -36,12 +41,18 @@ public class BudgetAlertTestController {
     private final PasswordEncoder passwordEncoder;
     private final BudgetService budgetService; // BudgetService 주입
     private final IReportService reportService; // IReportService 주입
+    private final SpendingRollupService spendingRollupService; // 샘플 데이터 생성 후 롤업 재생성
 
+    // month(yyyy-MM) 를 생략하면 지난 달 리포트 (끝난 달은 보관본이 있으면 그대로 재발송)
     @GetMapping("/send-report")
-    public ResponseEntity<String> sendTestReport(@RequestParam String userId) {
+    public ResponseEntity<String> sendTestReport(@RequestParam String userId,
+                                                 @RequestParam(required = false) String month) {
         try {
-            reportService.generateAndSendReportForUser(userId, YearMonth.now());
-            return ResponseEntity.ok(userId + "님에게 테스트 리포트 발송을 성공했습니다.");
+            YearMonth reportMonth = month == null ? YearMonth.now(ZoneId.of("Asia/Seoul")).minusMonths(1) : YearMonth.parse(month);
+            reportService.generateAndSendReportForUser(userId, reportMonth);
+            return ResponseEntity.ok(userId + "님에게 " + reportMonth + " 테스트 리포트 발송을 성공했습니다.");
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().body("잘못된 월 형식입니다. (yyyy-MM)");
         } catch (Exception e) {
             log.error("테스트 리포트 발송 중 오류", e);
             return ResponseEntity.internalServerError().body(userId + "님에게 리포트 발송 중 오류 발생: " + e.getMessage());
@@ -58,6 +69,25 @@ public class BudgetAlertTestController {
         }
     }
 
+    @GetMapping("/budget-alert/stats")
+    public ResponseEntity<?> getBudgetAlertStats() {
+        BudgetAlertRunStatsDTO stats = budgetAlertService.getLastRunStats();
+        if (stats == null) {
+            return ResponseEntity.ok("아직 예산 알림 스케줄러 실행 기록이 없습니다.");
+        }
+        return ResponseEntity.ok(stats);
+    }
+
+    // 월간 리포트 일괄 발송 진행 상황 (수집/렌더링/등록/실패 건수)
+    @GetMapping("/report/progress")
+    public ResponseEntity<?> getReportProgress() {
+        ReportRunProgressDTO progress = reportService.getMonthlyReportProgress();
+        if (progress == null) {
+            return ResponseEntity.ok("아직 실행된 월간 리포트 발송이 없습니다.");
+        }
+        return ResponseEntity.ok(progress);
+    }
+
     @GetMapping("/adjust-budgets")
     public ResponseEntity<String> triggerBudgetAdjustment() {
         try {
@@ -152,6 +182,7 @@ public class BudgetAlertTestController {
             spendings.add(SpendingEntity.builder().userId("user4").date(LocalDate.now()).category("교육").amount(new BigDecimal("120000")).description("학원비").build());
 
             spendingRepository.saveAll(spendings);
+            spendingRollupService.rebuildAll(); // 저장소에 직접 저장했으므로 롤업을 다시 생성
             log.info("[TestController] 샘플 지출 내역 {}건 생성 완료.", spendings.size());
             return ResponseEntity.ok("샘플 지출 내역 생성 완료.");
         } catch (Exception e) {
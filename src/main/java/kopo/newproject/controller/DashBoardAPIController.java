@@ -7,8 +7,10 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.time.YearMonth;
 import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -39,7 +41,7 @@ public class DashBoardAPIController {
             YearMonth startMonth = endMonth.minusMonths(5);
 
             Map<String, Integer> monthlyBudgetMap = budgetService.getTotalBudgetByMonth(userId, startMonth, endMonth);
-            Map<String, Integer> monthlyUsedMap = spendingService.getTotalSpendingByMonth(userId, startMonth, endMonth);
+            Map<String, Long> monthlyUsedMap = spendingService.getTotalSpendingByMonth(userId, startMonth, endMonth);
 
             List<Map<String, Object>> monthlyData = new ArrayList<>();
             YearMonth currentMonthIter = startMonth;
@@ -48,7 +50,7 @@ public class DashBoardAPIController {
                 Map<String, Object> row = new HashMap<>();
                 row.put("month", monthKey);
                 row.put("budget", monthlyBudgetMap.getOrDefault(monthKey, 0));
-                row.put("used", monthlyUsedMap.getOrDefault(monthKey, 0));
+                row.put("used", monthlyUsedMap.getOrDefault(monthKey, 0L));
                 monthlyData.add(row);
                 currentMonthIter = currentMonthIter.plusMonths(1);
             }
@@ -64,4 +66,23 @@ public class DashBoardAPIController {
             return ResponseEntity.status(500).body("대시보드 데이터 조회 실패");
         }
     }
+
+    // 📈 기간별 지출 추이 API (예: ?from=2025-01-01&to=2025-06-30&granularity=MONTH)
+    @GetMapping("/spending-series")
+    public ResponseEntity<?> getSpendingSeries(@RequestParam String from,
+                                               @RequestParam String to,
+                                               @RequestParam(defaultValue = "MONTH") ISpendingService.Granularity granularity) {
+        try {
+            LocalDate fromDate = LocalDate.parse(from);
+            LocalDate toDate = LocalDate.parse(to);
+            if (toDate.isBefore(fromDate)) {
+                return ResponseEntity.badRequest().body("종료일은 시작일보다 빠를 수 없습니다.");
+            }
+            return ResponseEntity.ok(spendingService.getSpendingSeries(getCurrentUserId(), fromDate, toDate, granularity));
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().body("잘못된 날짜 형식입니다. 'yyyy-MM-dd' 형식으로 전달해주세요.");
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body("지출 추이 조회 실패");
+        }
+    }
 }
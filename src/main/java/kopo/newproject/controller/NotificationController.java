@@ -2,12 +2,15 @@ package kopo.newproject.controller;
 
 import kopo.newproject.repository.entity.jpa.NotificationEntity;
 import kopo.newproject.repository.jpa.NotificationRepository;
+import kopo.newproject.service.impl.NotificationStreamService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -19,6 +22,7 @@ import java.util.Optional;
 public class NotificationController {
 
     private final NotificationRepository notificationRepository;
+    private final NotificationStreamService notificationStreamService;
 
     private String getCurrentUserId() {
         String userId = SecurityContextHolder.getContext().getAuthentication().getName();
@@ -28,6 +32,19 @@ public class NotificationController {
         return userId;
     }
 
+    // 알림 실시간 수신 (SSE) - 연결 시 읽지 않은 개수(count), 이후 새 알림(notification)과 개수 변경(count) 이벤트 전송
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamNotifications() {
+        try {
+            String userId = getCurrentUserId();
+            return ResponseEntity.ok(notificationStreamService.subscribe(userId));
+        } catch (AccessDeniedException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     // 모든 알림 조회 (최신순)
     @GetMapping
     public ResponseEntity<List<NotificationEntity>> getAllNotifications() {
@@ -85,6 +102,7 @@ public class NotificationController {
                 }
                 notification.markAsRead();
                 notificationRepository.save(notification);
+                notificationStreamService.publishUnreadCount(userId); // 다른 탭의 알림 개수 갱신
                 return ResponseEntity.ok().build();
             } else {
                 return ResponseEntity.notFound().build();
@@ -104,6 +122,7 @@ public class NotificationController {
             List<NotificationEntity> unreadNotifications = notificationRepository.findByUserIdAndIsReadFalseOrderByCreatedAtDesc(userId);
             unreadNotifications.forEach(NotificationEntity::markAsRead);
             notificationRepository.saveAll(unreadNotifications);
+            notificationStreamService.publishUnreadCount(userId);
             return ResponseEntity.ok().build();
         } catch (AccessDeniedException e) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
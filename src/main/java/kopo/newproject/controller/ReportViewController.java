@@ -0,0 +1,57 @@
+package kopo.newproject.controller;
+
+import kopo.newproject.service.IReportService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+
+/**
+ * 월간 리포트 다시 보기
+ * 메일로 발송된 것과 같은 HTML 을 그대로 보여줍니다. (지난 달 리포트는 보관본 1건만 읽음)
+ */
+@Slf4j
+@Controller
+@RequiredArgsConstructor
+@RequestMapping("/report")
+public class ReportViewController {
+
+    private final IReportService reportService;
+
+    private String getCurrentUserId() {
+        return SecurityContextHolder.getContext().getAuthentication().getName();
+    }
+
+    @GetMapping(value = "/{yearMonth}", produces = MediaType.TEXT_HTML_VALUE)
+    @ResponseBody
+    public ResponseEntity<String> viewReport(@PathVariable String yearMonth) {
+        YearMonth reportMonth;
+        try {
+            reportMonth = YearMonth.parse(yearMonth);
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().body("잘못된 연월 형식입니다. (예: 2025-06)");
+        }
+        if (reportMonth.isAfter(YearMonth.now(ZoneId.of("Asia/Seoul")))) {
+            return ResponseEntity.badRequest().body("아직 리포트를 볼 수 없는 달입니다.");
+        }
+
+        String userId = getCurrentUserId();
+        try {
+            log.info("📄 [View] 월간 리포트 조회 - userId={}, month={}", userId, reportMonth);
+            return ResponseEntity.ok(reportService.getReportHtml(userId, reportMonth));
+        } catch (Exception e) {
+            log.error("월간 리포트 조회 중 오류 (userId={}, month={})", userId, reportMonth, e);
+            return ResponseEntity.internalServerError().body("리포트를 불러오는 중 오류가 발생했습니다.");
+        }
+    }
+}
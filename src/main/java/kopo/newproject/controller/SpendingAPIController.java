@@ -1,15 +1,24 @@
 package kopo.newproject.controller;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import kopo.newproject.dto.SpendingFileFormat;
+import kopo.newproject.dto.SpendingImportResultDTO;
 import kopo.newproject.dto.SpendingRequest;
 import kopo.newproject.repository.entity.mongo.SpendingEntity;
 import kopo.newproject.service.ISpendingService;
+import kopo.newproject.service.impl.SpendingExportService;
+import kopo.newproject.service.impl.SpendingImportService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.time.YearMonth;
 import java.time.format.DateTimeParseException;
 import java.util.Collections;
@@ -21,6 +30,8 @@ import java.util.List;
 public class SpendingAPIController {
 
     private final ISpendingService spendingService;
+    private final SpendingImportService spendingImportService;
+    private final SpendingExportService spendingExportService;
 
     // 현재 사용자 ID를 얻는 메서드
     private String getCurrentUserId() {
@@ -29,9 +40,12 @@ public class SpendingAPIController {
     }
 
     // 지출 내역 조회 (월별, 카테고리별)
+    // 월을 지정하지 않으면 전체 내역 대신 최신순 키셋 페이지({items, nextCursor, hasNext})를 반환
     @GetMapping
     public ResponseEntity<?> getSpendingList(@RequestParam(required = false) String month,
-                                             @RequestParam(required = false) String category) {
+                                             @RequestParam(required = false) String category,
+                                             @RequestParam(required = false) String cursor,
+                                             @RequestParam(defaultValue = "20") int size) {
 
         try {
             YearMonth yearMonth = null;
@@ -39,6 +53,11 @@ public class SpendingAPIController {
                 yearMonth = YearMonth.parse(month);
             }
 
+            if (yearMonth == null) {
+                String categoryFilter = (category == null || category.isBlank()) ? null : category;
+                return ResponseEntity.ok(spendingService.getSpendingPage(getCurrentUserId(), categoryFilter, cursor, size));
+            }
+
             // category가 비어 있으면 모든 카테고리를 조회하도록 처리
             List<SpendingEntity> spendings;
             if (category == null || category.isBlank()) {
@@ -55,11 +74,60 @@ public class SpendingAPIController {
 
         } catch (DateTimeParseException e) {
             return ResponseEntity.badRequest().body("잘못된 날짜 형식입니다. 'yyyy-MM' 형식으로 전달해주세요.");
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("잘못된 페이지 커서입니다.");
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("지출 내역 조회 실패");
         }
     }
 
+    // 지출 내역 전체를 NDJSON(한 줄에 JSON 1건)으로 스트리밍
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamSpendingList(@RequestParam(required = false) String category) {
+        String userId = getCurrentUserId(); // 스트리밍은 별도 스레드에서 실행되므로 미리 조회
+        String categoryFilter = (category == null || category.isBlank()) ? null : category;
+
+        StreamingResponseBody body = out ->
+                spendingExportService.export(userId, null, null, categoryFilter, SpendingFileFormat.NDJSON, false, out);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    // 지출 내역 내보내기 (CSV / NDJSON, 선택적으로 gzip)
+    @GetMapping("/export")
+    public ResponseEntity<?> exportSpendings(@RequestParam(required = false) String from,
+                                             @RequestParam(required = false) String to,
+                                             @RequestParam(required = false) String category,
+                                             @RequestParam(defaultValue = "CSV") SpendingFileFormat format,
+                                             @RequestParam(defaultValue = "false") boolean gzip) {
+        try {
+            String userId = getCurrentUserId(); // 스트리밍은 별도 스레드에서 실행되므로 미리 조회
+            LocalDate fromDate = (from == null || from.isBlank()) ? null : LocalDate.parse(from);
+            LocalDate toDate = (to == null || to.isBlank()) ? null : LocalDate.parse(to);
+            if (fromDate != null && toDate != null && fromDate.isAfter(toDate)) {
+                return ResponseEntity.badRequest().body("시작일은 종료일보다 늦을 수 없습니다.");
+            }
+            String categoryFilter = (category == null || category.isBlank()) ? null : category;
+
+            StreamingResponseBody body = out ->
+                    spendingExportService.export(userId, fromDate, toDate, categoryFilter, format, gzip, out);
+
+            String fileName = "spending." + (format == SpendingFileFormat.CSV ? "csv" : "ndjson") + (gzip ? ".gz" : "");
+            MediaType contentType = gzip
+                    ? MediaType.parseMediaType("application/gzip")
+                    : (format == SpendingFileFormat.CSV ? MediaType.parseMediaType("text/csv; charset=UTF-8") : MediaType.APPLICATION_NDJSON);
+
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                    .contentType(contentType)
+                    .body(body);
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().body("잘못된 날짜 형식입니다. 'yyyy-MM-dd' 형식으로 전달해주세요.");
+        }
+    }
+
     // ✅ 지출 단건 조회 API
     @GetMapping("/{id}")
     public ResponseEntity<?> getSpendingById(@PathVariable String id) {
@@ -92,6 +160,25 @@ public class SpendingAPIController {
         }
     }
 
+    // 지출 내역 일괄 등록
+    // CSV: 첫 줄에 name,date,category,amount,description 헤더 / NDJSON: 한 줄에 SpendingRequest JSON 1건
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<?> importSpendings(HttpServletRequest request) {
+        try {
+            SpendingFileFormat format =
+                    MediaType.APPLICATION_NDJSON.isCompatibleWith(MediaType.parseMediaType(request.getContentType()))
+                            ? SpendingFileFormat.NDJSON
+                            : SpendingFileFormat.CSV;
+            SpendingImportResultDTO result = spendingImportService.importSpendings(getCurrentUserId(), request.getInputStream(), format);
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Collections.singletonMap("message", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Collections.singletonMap("message", "지출 일괄 등록 실패"));
+        }
+    }
+
     // 지출 내역 수정
     @PutMapping("/{id}")
     public ResponseEntity<?> updateSpending(@PathVariable String id, @RequestBody @Valid SpendingRequest request) {
@@ -0,0 +1,9 @@
+package kopo.newproject.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * 물가 반영 예산 일괄 조정 시 조정 전/후 금액을 비교하기 위한 예산 행
+ */
+public record BudgetAdjustmentDTO(Long budgetId, String userId, String category, BigDecimal totalBudget) {
+}
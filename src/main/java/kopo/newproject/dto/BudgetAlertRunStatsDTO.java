@@ -0,0 +1,19 @@
+package kopo.newproject.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * 예산 초과 예측 알림 스케줄러 1회 실행 통계
+ *
+ * @param startedAt        실행 시작 시각
+ * @param wallTimeMs       전체 소요 시간 (ms)
+ * @param budgets          검사한 예산 수
+ * @param users            검사한 사용자 수
+ * @param partitions       사용자 파티션 수
+ * @param failedPartitions 오류로 중단된 파티션 수
+ * @param alerts           발송 대상으로 판정된 알림 수
+ * @param usersPerSecond   초당 처리 사용자 수
+ */
+public record BudgetAlertRunStatsDTO(LocalDateTime startedAt, long wallTimeMs, int budgets, int users,
+                                     int partitions, int failedPartitions, int alerts, double usersPerSecond) {
+}
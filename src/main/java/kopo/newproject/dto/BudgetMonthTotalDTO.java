@@ -0,0 +1,9 @@
+package kopo.newproject.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * 사용자/연월별 예산 합계
+ */
+public record BudgetMonthTotalDTO(String userId, int year, int month, BigDecimal totalBudget) {
+}
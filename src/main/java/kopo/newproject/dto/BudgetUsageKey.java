@@ -0,0 +1,9 @@
+package kopo.newproject.dto;
+
+/**
+ * 예산 사용액 일괄 조회용 키 (연, 월, 카테고리)
+ *
+ * @param category null 이면 해당 월 전체 카테고리 합계
+ */
+public record BudgetUsageKey(int year, int month, String category) {
+}
@@ -0,0 +1,24 @@
+package kopo.newproject.dto;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.Map;
+
+/**
+ * 또래(성별 + 연령대) 소비 비교 결과
+ *
+ * @param categoryAverageSpending 카테고리별 평균 지출
+ * @param categoryDistribution    카테고리별 분위수와 요청 사용자의 위치
+ */
+public record CohortComparisonDTO(String id, YearMonth month, String gender, String ageGroup, long userCount,
+                                  Map<String, BigDecimal> categoryAverageSpending,
+                                  Map<String, CategoryDistribution> categoryDistribution) {
+
+    /**
+     * @param myAmount     요청 사용자의 이번 달 해당 카테고리 지출
+     * @param myPercentile 요청 사용자보다 적게 쓴 또래 비율(0~100), 지출이 없으면 null
+     */
+    public record CategoryDistribution(BigDecimal p25, BigDecimal p50, BigDecimal p75, BigDecimal p90,
+                                       BigDecimal myAmount, Double myPercentile) {
+    }
+}
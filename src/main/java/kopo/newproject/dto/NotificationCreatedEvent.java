@@ -0,0 +1,13 @@
+package kopo.newproject.dto;
+
+import kopo.newproject.repository.entity.jpa.NotificationEntity;
+
+import java.util.List;
+
+/**
+ * 인앱 알림이 저장된 뒤 발행되는 이벤트 (트랜잭션 안에서 발행된 경우 커밋 후 전달)
+ *
+ * @param notifications 저장된 알림 (ID 가 채워진 상태)
+ */
+public record NotificationCreatedEvent(List<NotificationEntity> notifications) {
+}
@@ -0,0 +1,25 @@
+package kopo.newproject.dto;
+
+import kopo.newproject.repository.entity.jpa.GoalEntity;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 월간 리포트 1건을 만드는 데 필요한 사용자별 원본 데이터 (여러 사용자를 한 번에 조회한 결과의 사용자별 묶음)
+ *
+ * @param spendingByCategory         리포트 월의 카테고리별 지출 합계 (카테고리가 비어 있는 지출 제외)
+ * @param totalSpending              리포트 월의 전체 지출 합계
+ * @param previousMonthTotalSpending 이전 월의 전체 지출 합계
+ * @param totalBudget                리포트 월의 예산 합계
+ * @param previousMonthTotalBudget   이전 월의 예산 합계
+ * @param goals                      목표 (마감일 순)
+ * @param analysisResult             리포트 월의 최신 AI 분석 결과 JSON (없으면 null)
+ */
+public record ReportInputDTO(String userId, String userName, String userEmail,
+                             Map<String, BigDecimal> spendingByCategory,
+                             BigDecimal totalSpending, BigDecimal previousMonthTotalSpending,
+                             BigDecimal totalBudget, BigDecimal previousMonthTotalBudget,
+                             List<GoalEntity> goals, String analysisResult) {
+}
@@ -0,0 +1,23 @@
+package kopo.newproject.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * 월간 리포트 일괄 발송 진행 상황 (실행 중에는 실시간 값)
+ *
+ * @param month      리포트 대상 연월 (yyyy-MM)
+ * @param running    실행 중 여부
+ * @param startedAt  실행 시작 시각
+ * @param finishedAt 실행 종료 시각 (실행 중이면 null)
+ * @param total      대상 사용자 수
+ * @param queued     파이프라인에 등록된 사용자 수
+ * @param assembled  리포트 데이터 수집이 끝난 수
+ * @param rendered   HTML 렌더링이 끝난 수
+ * @param sent       메일 발송 대기열(Outbox)에 등록된 수
+ * @param failed     단계와 관계없이 실패한 수
+ * @param elapsedMs  경과 시간 (ms)
+ */
+public record ReportRunProgressDTO(String month, boolean running, LocalDateTime startedAt, LocalDateTime finishedAt,
+                                   long total, long queued, long assembled, long rendered, long sent, long failed,
+                                   long elapsedMs) {
+}
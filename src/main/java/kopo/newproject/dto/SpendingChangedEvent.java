@@ -0,0 +1,11 @@
+package kopo.newproject.dto;
+
+import java.util.List;
+
+/**
+ * 지출 저장/수정/삭제가 롤업에 반영된 뒤 발행되는 이벤트
+ *
+ * @param deltas 반영된 증감분 (같은 사용자/연월/카테고리는 하나로 합쳐진 상태)
+ */
+public record SpendingChangedEvent(List<SpendingDelta> deltas) {
+}
@@ -0,0 +1,16 @@
+package kopo.newproject.dto;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+
+/**
+ * 지출 저장/수정/삭제로 인해 발생한 (사용자, 연월, 카테고리) 단위의 증감분
+ *
+ * @param userId     사용자 ID
+ * @param yearMonth  지출 연월
+ * @param category   지출 카테고리
+ * @param amount     금액 증감분 (삭제 시 음수)
+ * @param countDelta 건수 증감분 (+1, -1)
+ */
+public record SpendingDelta(String userId, YearMonth yearMonth, String category, BigDecimal amount, long countDelta) {
+}
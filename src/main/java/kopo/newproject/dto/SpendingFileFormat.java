@@ -0,0 +1,9 @@
+package kopo.newproject.dto;
+
+/**
+ * 지출 내역 일괄 등록/내보내기 파일 형식
+ */
+public enum SpendingFileFormat {
+    CSV,
+    NDJSON
+}
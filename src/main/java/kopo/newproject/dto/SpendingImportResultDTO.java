@@ -0,0 +1,21 @@
+package kopo.newproject.dto;
+
+import java.util.List;
+
+/**
+ * 지출 내역 일괄 등록 결과
+ *
+ * @param totalRows    처리한 데이터 행 수 (헤더 제외)
+ * @param importedRows 저장된 행 수
+ * @param failedRows   실패한 행 수
+ * @param errors       행별 오류 목록 (최대 개수까지만 포함)
+ */
+public record SpendingImportResultDTO(long totalRows, long importedRows, long failedRows, List<RowError> errors) {
+
+    /**
+     * @param row     1부터 시작하는 데이터 행 번호 (CSV 헤더 제외)
+     * @param message 오류 내용
+     */
+    public record RowError(long row, String message) {
+    }
+}
@@ -0,0 +1,15 @@
+package kopo.newproject.dto;
+
+import kopo.newproject.repository.entity.mongo.SpendingEntity;
+
+import java.util.List;
+
+/**
+ * 지출 내역 키셋 페이지 (date desc, _id desc)
+ *
+ * @param items      현재 페이지 항목
+ * @param nextCursor 다음 페이지 조회용 커서 (마지막 페이지면 null)
+ * @param hasNext    다음 페이지 존재 여부
+ */
+public record SpendingPageDTO(List<SpendingEntity> items, String nextCursor, boolean hasNext) {
+}
@@ -0,0 +1,27 @@
+package kopo.newproject.dto;
+
+import kopo.newproject.util.AgeCalculator;
+
+/**
+ * 소비 비교 그룹(성별 + 연령대) 산출에 필요한 최소한의 사용자 정보
+ *
+ * @param birthDate "YYYY-MM-DD" 형식의 생년월일
+ */
+public record UserCohortDTO(String userId, String gender, String birthDate) {
+
+    /**
+     * "성별_연령대" 형식의 그룹 키 (e.g., "M_20s")
+     *
+     * @return 성별/생년월일이 없거나 나이를 계산할 수 없으면 null
+     */
+    public String cohortKey() {
+        if (gender == null || gender.isEmpty() || birthDate == null || birthDate.isEmpty()) {
+            return null;
+        }
+        int age = AgeCalculator.calculateAge(birthDate);
+        if (age == -1) {
+            return null;
+        }
+        return gender + "_" + AgeCalculator.getAgeGroup(age);
+    }
+}
@@ -0,0 +1,36 @@
+package kopo.newproject.repository.entity.jpa;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.DynamicInsert;
+import org.hibernate.annotations.DynamicUpdate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 한국은행 ECOS 에서 받아온 월별 소비자물가지수(CPI) 스냅샷
+ * 재기동 후에도 외부 API 를 다시 호출하지 않고 마지막으로 받은 값을 사용하기 위해 저장합니다.
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "CPI_INDEX")
+@DynamicInsert
+@DynamicUpdate
+@Builder
+@Entity
+public class CpiIndexEntity {
+
+    @Id
+    @Column(name = "time", length = 6)
+    private String time; // 시점 (yyyyMM)
+
+    @NonNull
+    @Column(name = "data_value", nullable = false, precision = 12, scale = 3)
+    private BigDecimal dataValue;
+
+    @NonNull
+    @Column(name = "fetched_at", nullable = false)
+    private LocalDateTime fetchedAt;
+}
@@ -0,0 +1,101 @@
+package kopo.newproject.repository.entity.jpa;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.DynamicInsert;
+import org.hibernate.annotations.DynamicUpdate;
+
+import java.time.LocalDateTime;
+
+/**
+ * 발송 대기 메일 (Outbox)
+ * 호출 측 트랜잭션 안에서 저장되고, 백그라운드 발송기가 배치 단위로 꺼내어 SMTP 로 보냅니다.
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "MAIL_OUTBOX", indexes = {
+        @Index(name = "idx_mail_outbox_status_next", columnList = "status, next_attempt_at"),
+        @Index(name = "idx_mail_outbox_claim_token", columnList = "claim_token")
+})
+@DynamicInsert
+@DynamicUpdate
+@Builder
+@Entity
+public class MailOutboxEntity {
+
+    public enum Status {
+        PENDING, // 발송 대기 (재시도 대기 포함)
+        SENDING, // 발송기가 가져가 발송 중 (claimToken 으로 소유자 구분)
+        SENT,    // 발송 완료
+        FAILED   // 최대 재시도 횟수 초과
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "outbox_id")
+    private Long outboxId;
+
+    @NonNull
+    @Column(name = "to_mail", nullable = false)
+    private String toMail;
+
+    @NonNull
+    @Column(name = "title", nullable = false, length = 500)
+    private String title;
+
+    @NonNull
+    @Column(name = "contents", nullable = false, columnDefinition = "LONGTEXT")
+    private String contents;
+
+    @NonNull
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 10)
+    private Status status;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @NonNull
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @NonNull
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+
+    // 발송기 1회 배치가 가져간 행 표시 (여러 인스턴스/겹친 실행이 같은 메일을 보내지 않도록)
+    @Column(name = "claim_token", length = 36)
+    private String claimToken;
+
+    @Column(name = "claimed_at")
+    private LocalDateTime claimedAt;
+
+    // 발송 성공 처리
+    public void markSent(LocalDateTime now) {
+        this.status = Status.SENT;
+        this.attempts++;
+        this.sentAt = now;
+        this.lastError = null;
+        this.claimToken = null;
+    }
+
+    // 발송 실패 처리: 최대 횟수 미만이면 nextAttemptAt 이후 재시도, 아니면 FAILED
+    public void markFailed(String error, LocalDateTime nextAttemptAt, int maxAttempts) {
+        this.attempts++;
+        this.lastError = error == null ? null : error.substring(0, Math.min(error.length(), 1000));
+        this.claimToken = null;
+        if (this.attempts >= maxAttempts) {
+            this.status = Status.FAILED;
+        } else {
+            this.status = Status.PENDING;
+            this.nextAttemptAt = nextAttemptAt;
+        }
+    }
+}
@@ -3,11 +3,19 @@ package kopo.newproject.repository.entity.mongo;
 import lombok.*;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 import java.time.Instant;
 import java.time.LocalDateTime;
 
 @Document(collection = "AI_analysis")
+@CompoundIndexes({
+        @CompoundIndex(name = "userId_month_createdAt", def = "{'userId': 1, 'month': 1, 'createdAt': -1}"),
+        @CompoundIndex(name = "userId_createdAt", def = "{'userId': 1, 'createdAt': -1}"),
+        // 동일 입력 재분석 시 캐시 조회
+        @CompoundIndex(name = "userId_month_inputHash", def = "{'userId': 1, 'month': 1, 'inputHash': 1}")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -22,6 +30,7 @@ public class AIAnalysisEntity {
     private String month;
     private String requestData; // 사용자 id
     private String result; // GPT 응답
+    private String inputHash; // 전처리 입력(+모델/프롬프트 버전)의 SHA-256, 동일 입력 재요청 시 캐시 키
 
      private int version;
 
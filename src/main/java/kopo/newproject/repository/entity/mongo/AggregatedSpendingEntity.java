@@ -4,6 +4,7 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.math.BigDecimal;
@@ -13,6 +14,7 @@ import java.util.Map;
 @Getter
 @Setter
 @Document(collection = "aggregated_spending")
+@CompoundIndex(name = "month_gender_ageGroup", def = "{'month': 1, 'gender': 1, 'ageGroup': 1}")
 public class AggregatedSpendingEntity {
 
     @Id
@@ -22,6 +24,8 @@ public class AggregatedSpendingEntity {
     private String gender; // "M" 또는 "F"
     private String ageGroup; // "10대", "20대", "30대" 등
     private Map<String, BigDecimal> categoryAverageSpending; // 카테고리별 평균 지출
+    private Map<String, BigDecimal> categoryTotalSpending; // 카테고리별 총 지출 (지출 저장 시 증분 갱신)
+    private Map<String, Map<String, Long>> categoryHistogram; // 카테고리 → (금액 버킷 → 사용자 수), SpendingHistogram 참고
     private long userCount; // 해당 그룹에 속한 사용자 수
 
     // Manually added builder method to resolve compilation issues if Lombok fails
@@ -35,6 +39,8 @@ public class AggregatedSpendingEntity {
         private String gender;
         private String ageGroup;
         private Map<String, BigDecimal> categoryAverageSpending;
+        private Map<String, BigDecimal> categoryTotalSpending;
+        private Map<String, Map<String, Long>> categoryHistogram;
         private long userCount;
 
         AggregatedSpendingEntityBuilder() {}
@@ -64,27 +70,39 @@ public class AggregatedSpendingEntity {
             return this;
         }
 
+        public AggregatedSpendingEntityBuilder categoryTotalSpending(Map<String, BigDecimal> categoryTotalSpending) {
+            this.categoryTotalSpending = categoryTotalSpending;
+            return this;
+        }
+
+        public AggregatedSpendingEntityBuilder categoryHistogram(Map<String, Map<String, Long>> categoryHistogram) {
+            this.categoryHistogram = categoryHistogram;
+            return this;
+        }
+
         public AggregatedSpendingEntityBuilder userCount(long userCount) {
             this.userCount = userCount;
             return this;
         }
 
         public AggregatedSpendingEntity build() {
-            return new AggregatedSpendingEntity(id, month, gender, ageGroup, categoryAverageSpending, userCount);
+            return new AggregatedSpendingEntity(id, month, gender, ageGroup, categoryAverageSpending, categoryTotalSpending, categoryHistogram, userCount);
         }
 
         public String toString() {
-            return "AggregatedSpendingEntity.AggregatedSpendingEntityBuilder(id=" + this.id + ", month=" + this.month + ", gender=" + this.gender + ", ageGroup=" + this.ageGroup + ", categoryAverageSpending=" + this.categoryAverageSpending + ", userCount=" + this.userCount + ")";
+            return "AggregatedSpendingEntity.AggregatedSpendingEntityBuilder(id=" + this.id + ", month=" + this.month + ", gender=" + this.gender + ", ageGroup=" + this.ageGroup + ", categoryAverageSpending=" + this.categoryAverageSpending + ", categoryTotalSpending=" + this.categoryTotalSpending + ", categoryHistogram=" + this.categoryHistogram + ", userCount=" + this.userCount + ")";
         }
     }
 
     // Manually added constructor to resolve compilation issues if Lombok fails
-    public AggregatedSpendingEntity(String id, YearMonth month, String gender, String ageGroup, Map<String, BigDecimal> categoryAverageSpending, long userCount) {
+    public AggregatedSpendingEntity(String id, YearMonth month, String gender, String ageGroup, Map<String, BigDecimal> categoryAverageSpending, Map<String, BigDecimal> categoryTotalSpending, Map<String, Map<String, Long>> categoryHistogram, long userCount) {
         this.id = id;
         this.month = month;
         this.gender = gender;
         this.ageGroup = ageGroup;
         this.categoryAverageSpending = categoryAverageSpending;
+        this.categoryTotalSpending = categoryTotalSpending;
+        this.categoryHistogram = categoryHistogram;
         this.userCount = userCount;
     }
 
@@ -0,0 +1,55 @@
+package kopo.newproject.repository.entity.mongo;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * 비동기 AI 분석 작업
+ * 요청 시 QUEUED 로 저장되고, 작업 실행기가 RUNNING → SUCCEEDED/FAILED 로 갱신합니다.
+ */
+@Document(collection = "AI_analysis_job")
+@CompoundIndexes({
+        @CompoundIndex(name = "userId_createdAt", def = "{'userId': 1, 'createdAt': -1}"),
+        // 재기동 시 미완료 작업 재등록
+        @CompoundIndex(name = "status_createdAt", def = "{'status': 1, 'createdAt': 1}")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AnalysisJobEntity {
+
+    public enum Status {
+        QUEUED,    // 실행 대기
+        RUNNING,   // 실행 중 (재시도 포함)
+        SUCCEEDED, // 완료
+        FAILED     // 최대 재시도 후 실패
+    }
+
+    @Id
+    private String id;
+
+    private String userId;
+    private String month; // "yyyy-MM"
+    private boolean force; // 동일 입력 캐시 무시 여부
+
+    private Status status;
+    private int attempts; // 실행 시도 횟수
+
+    private String result; // 분석 결과 JSON (SUCCEEDED)
+    private String error; // 마지막 오류 메시지
+
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime finishedAt;
+
+    public boolean isFinished() {
+        return status == Status.SUCCEEDED || status == Status.FAILED;
+    }
+}
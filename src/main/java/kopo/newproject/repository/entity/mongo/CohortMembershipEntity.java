@@ -0,0 +1,34 @@
+package kopo.newproject.repository.entity.mongo;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * 사용자가 특정 월에 어느 소비 비교 그룹으로 집계되었는지 기록 (aggregated_spending.userCount 증분 관리용)
+ * 해당 월 지출 건수가 0에서 1 이상이 될 때 그룹 사용자 수를 1 늘리고, 다시 0이 되면 1 줄입니다.
+ */
+@Document(collection = "cohort_membership")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CohortMembershipEntity {
+
+    @Id
+    private String id; // 예: "user1_2025-07"
+
+    private String userId;
+
+    @Indexed(name = "month")
+    private String month; // "yyyy-MM"
+
+    private String cohortKey; // 예: "M_20s" (처음 집계될 때의 그룹으로 고정)
+    private long spendingCount; // 해당 월 지출 건수
+
+    public static String toId(String userId, String month) {
+        return userId + "_" + month;
+    }
+}
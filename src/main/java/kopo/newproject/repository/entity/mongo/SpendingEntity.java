@@ -6,6 +6,8 @@ import kopo.newproject.dto.SpendingRequest;
 import lombok.*;
 import org.bson.types.ObjectId;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 
@@ -15,6 +17,12 @@ import java.time.YearMonth;
 import java.time.ZoneId;
 
 @Document(collection = "spending")
+@CompoundIndexes({
+        // 사용자별 기간 조회/집계 및 최신순 페이지 조회
+        @CompoundIndex(name = "userId_date_id", def = "{'userId': 1, 'date': -1, '_id': -1}"),
+        // 사용자별 카테고리 + 기간 조회
+        @CompoundIndex(name = "userId_category_date", def = "{'userId': 1, 'category': 1, 'date': -1}")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,35 @@
+package kopo.newproject.repository.entity.mongo;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.math.BigDecimal;
+
+/**
+ * 사용자별 월간/카테고리별 지출 합계 (spending 컬렉션의 증분 집계본)
+ * SpendingService의 저장/수정/삭제 시 $inc 로 갱신됩니다.
+ */
+@Document(collection = "spending_rollup")
+@CompoundIndex(name = "userId_yearMonth", def = "{'userId': 1, 'yearMonth': 1}")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SpendingRollupEntity {
+
+    @Id
+    private String id; // 예: "user1_2025-07_식비"
+
+    private String userId;
+    private String yearMonth; // "yyyy-MM"
+    private String category;
+    private BigDecimal total; // 해당 월/카테고리 지출 합계
+    private long count; // 지출 건수
+
+    public static String toId(String userId, String yearMonth, String category) {
+        return userId + "_" + yearMonth + "_" + category;
+    }
+}
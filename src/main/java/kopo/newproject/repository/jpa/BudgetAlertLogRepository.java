@@ -4,6 +4,9 @@ import kopo.newproject.repository.entity.jpa.BudgetAlertLogEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface BudgetAlertLogRepository extends JpaRepository<BudgetAlertLogEntity, Long> {
 
@@ -11,4 +14,9 @@ public interface BudgetAlertLogRepository extends JpaRepository<BudgetAlertLogEn
      * 특정 사용자의 해당 월, 해당 카테고리에 대한 알림 발송 기록이 있는지 확인
      */
     boolean existsByUserIdAndYearAndMonthAndCategory(String userId, int year, int month, String category);
+
+    /**
+     * 해당 월에 주어진 사용자들에게 발송된 알림 기록 (스케줄러에서 파티션 단위로 조회)
+     */
+    List<BudgetAlertLogEntity> findAllByYearAndMonthAndUserIdIn(int year, int month, Collection<String> userIds);
 }
@@ -1,9 +1,17 @@
 package kopo.newproject.repository.jpa;
 
+import kopo.newproject.dto.BudgetAdjustmentDTO;
+import kopo.newproject.dto.BudgetMonthTotalDTO;
 import kopo.newproject.repository.entity.jpa.BudgetEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.time.YearMonth;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,6 +29,32 @@ public interface BudgetRepository extends JpaRepository<BudgetEntity, Long> {
     List<BudgetEntity> findByCategory(String category);
     List<BudgetEntity> findByMonthAndCategory(int month, String category);
 
+    // 특정 연/월의 전체 사용자 예산 (예산 알림 스케줄러용)
+    List<BudgetEntity> findAllByYearAndMonth(int year, int month);
+
+    // 월간 리포트 일괄 생성용: 여러 사용자의 두 달치 예산 합계를 한 번에 조회
+    @Query("SELECT new kopo.newproject.dto.BudgetMonthTotalDTO(b.userId, b.year, b.month, SUM(b.totalBudget)) " +
+            "FROM BudgetEntity b WHERE b.userId IN :userIds " +
+            "AND ((b.year = :year1 AND b.month = :month1) OR (b.year = :year2 AND b.month = :month2)) " +
+            "GROUP BY b.userId, b.year, b.month")
+    List<BudgetMonthTotalDTO> sumTotalBudgetsByUsers(@Param("userIds") Collection<String> userIds,
+                                                     @Param("year1") int year1, @Param("month1") int month1,
+                                                     @Param("year2") int year2, @Param("month2") int month2);
+
+    // 물가 반영 일괄 조정용: 여러 사용자의 특정 연/월 예산 금액만 조회
+    @Query("SELECT new kopo.newproject.dto.BudgetAdjustmentDTO(b.budgetId, b.userId, b.category, b.totalBudget) " +
+            "FROM BudgetEntity b WHERE b.year = :year AND b.month = :month AND b.userId IN :userIds")
+    List<BudgetAdjustmentDTO> findAdjustmentRows(@Param("year") int year, @Param("month") int month,
+                                                 @Param("userIds") Collection<String> userIds);
+
+    // 물가 반영 일괄 조정: 여러 사용자의 특정 연/월 예산을 한 번의 UPDATE 로 조정 (원 단위 반올림)
+    @Modifying
+    @Query("UPDATE BudgetEntity b SET b.totalBudget = ROUND(b.totalBudget * :multiplier, 0), b.lastAdjustedDate = :adjustedAt " +
+            "WHERE b.year = :year AND b.month = :month AND b.userId IN :userIds")
+    int adjustTotalBudgets(@Param("year") int year, @Param("month") int month,
+                           @Param("userIds") Collection<String> userIds,
+                           @Param("multiplier") BigDecimal multiplier, @Param("adjustedAt") LocalDateTime adjustedAt);
+
 
 
 
@@ -0,0 +1,16 @@
+package kopo.newproject.repository.jpa;
+
+import kopo.newproject.repository.entity.jpa.CpiIndexEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface CpiIndexRepository extends JpaRepository<CpiIndexEntity, String> {
+
+    /**
+     * 기간 내 CPI 를 최신순으로 조회 (시점은 yyyyMM)
+     */
+    List<CpiIndexEntity> findByTimeBetweenOrderByTimeDesc(String startTime, String endTime);
+}
@@ -4,6 +4,7 @@ import kopo.newproject.repository.entity.jpa.GoalEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -14,4 +15,7 @@ public interface GoalRepository extends JpaRepository<GoalEntity, Long> {
 
     // 사용자별 월별 마감일 기준 정렬
     List<GoalEntity> findByUserIdOrderByDeadlineAsc(String userId);
+
+    // 여러 사용자의 목표를 한 번에 조회 (월간 리포트 일괄 생성용)
+    List<GoalEntity> findByUserIdInOrderByDeadlineAsc(Collection<String> userIds);
 }
@@ -0,0 +1,50 @@
+package kopo.newproject.repository.jpa;
+
+import kopo.newproject.repository.entity.jpa.MailOutboxEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface MailOutboxRepository extends JpaRepository<MailOutboxEntity, Long> {
+
+    /**
+     * 발송 시각이 도래한 대기 메일 ID 를 오래된 순으로 조회
+     */
+    @Query("SELECT o.outboxId FROM MailOutboxEntity o WHERE o.status = :status AND o.nextAttemptAt <= :now ORDER BY o.outboxId")
+    List<Long> findDueIds(@Param("status") MailOutboxEntity.Status status, @Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * 아직 대기 중인 행만 조건부로 SENDING 으로 바꿔 가져갑니다. (다른 발송기가 먼저 가져간 행은 제외됨)
+     */
+    @Modifying
+    @Query("UPDATE MailOutboxEntity o SET o.status = :sending, o.claimToken = :token, o.claimedAt = :claimedAt " +
+            "WHERE o.outboxId IN :ids AND o.status = :pending")
+    int claim(@Param("ids") Collection<Long> ids, @Param("token") String token, @Param("claimedAt") LocalDateTime claimedAt,
+              @Param("pending") MailOutboxEntity.Status pending, @Param("sending") MailOutboxEntity.Status sending);
+
+    List<MailOutboxEntity> findByClaimTokenOrderByOutboxIdAsc(String claimToken);
+
+    /**
+     * 발송 중 서버가 종료되는 등으로 오래 SENDING 에 머문 행을 다시 대기 상태로 돌립니다.
+     */
+    @Modifying
+    @Query("UPDATE MailOutboxEntity o SET o.status = :pending, o.claimToken = NULL " +
+            "WHERE o.status = :sending AND o.claimedAt < :before")
+    int releaseExpiredClaims(@Param("before") LocalDateTime before,
+                             @Param("pending") MailOutboxEntity.Status pending, @Param("sending") MailOutboxEntity.Status sending);
+
+    // 보관 기간이 지난 발송 완료 메일 ID (정리용)
+    @Query("SELECT o.outboxId FROM MailOutboxEntity o WHERE o.status = :status AND o.sentAt < :before ORDER BY o.outboxId")
+    List<Long> findSentIdsBefore(@Param("status") MailOutboxEntity.Status status, @Param("before") LocalDateTime before,
+                                 Pageable pageable);
+
+    long countByStatus(MailOutboxEntity.Status status);
+}
@@ -1,9 +1,14 @@
 package kopo.newproject.repository.jpa;
 
+import kopo.newproject.dto.UserCohortDTO;
 import kopo.newproject.repository.entity.jpa.UserInfoEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -20,6 +25,18 @@ public interface UserInfoRepository extends JpaRepository<UserInfoEntity, String
 
     Optional<UserInfoEntity> findByUserIdAndEmail(String name, String email);
 
+    // 소비 비교 집계용: 성별/생년월일이 있는 사용자의 그룹 산출 정보만 조회
+    @Query("SELECT new kopo.newproject.dto.UserCohortDTO(u.userId, u.gender, u.birthDate) FROM UserInfoEntity u " +
+            "WHERE u.gender IS NOT NULL AND u.birthDate IS NOT NULL")
+    List<UserCohortDTO> findAllCohorts();
+
+    @Query("SELECT new kopo.newproject.dto.UserCohortDTO(u.userId, u.gender, u.birthDate) FROM UserInfoEntity u " +
+            "WHERE u.userId IN :userIds")
+    List<UserCohortDTO> findCohortsByUserIdIn(@Param("userIds") Collection<String> userIds);
+
+    // 물가 반영 예산 자동 조정을 켠 사용자
+    List<UserInfoEntity> findAllByAutoBudgetAdjustmentEnabledTrue();
+
 
 
 
@@ -12,5 +12,8 @@ public interface AIAnalysisRepository extends MongoRepository<AIAnalysisEntity,
     java.util.Optional<AIAnalysisEntity> findTopByUserIdOrderByCreatedAtDesc(String userId);
     List<AIAnalysisEntity> findByUserIdAndMonthOrderByCreatedAtDesc(String userId, String month);
     java.util.Optional<AIAnalysisEntity> findByIdAndUserId(String id, String userId);
+    java.util.Optional<AIAnalysisEntity> findTopByUserIdAndMonthAndInputHashOrderByCreatedAtDesc(String userId, String month, String inputHash);
+    // 기간 내 생성된 분석 수 (월간 분석 한도 초기값)
+    long countByUserIdAndCreatedAtBetween(String userId, java.time.LocalDateTime start, java.time.LocalDateTime end);
     long countByUserIdAndMonthAndCreatedAtBetween(String userId, String month, java.util.Date start, java.util.Date end);
 }
@@ -0,0 +1,15 @@
+package kopo.newproject.repository.mongo;
+
+import kopo.newproject.repository.entity.mongo.AnalysisJobEntity;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface AnalysisJobRepository extends MongoRepository<AnalysisJobEntity, String> {
+
+    Optional<AnalysisJobEntity> findByIdAndUserId(String id, String userId);
+
+    List<AnalysisJobEntity> findByStatusInOrderByCreatedAtAsc(Collection<AnalysisJobEntity.Status> statuses);
+}
@@ -5,6 +5,7 @@ import kopo.newproject.repository.entity.mongo.SpendingEntity;
 import org.bson.types.ObjectId;
 import org.springframework.data.mongodb.repository.Aggregation;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 
 
 import java.math.BigDecimal;
@@ -37,6 +38,10 @@ public interface SpendingRepository extends MongoRepository<SpendingEntity, Obje
 
     List<SpendingEntity> findByUserIdAndDateBetween(String userId, LocalDate startDate, LocalDate endDate);
 
+    // 기간 내 지출 조회 (시작일 포함, 종료일 제외) - 파생 쿼리의 Between 은 양쪽 경계를 모두 제외함
+    @Query("{ 'userId': ?0, 'date': { $gte: ?1, $lt: ?2 } }")
+    List<SpendingEntity> findByUserIdAndDateRange(String userId, LocalDate startInclusive, LocalDate endExclusive);
+
     List<SpendingEntity> findByUserIdAndDateBetweenAndCategory(String userId, LocalDate startDate, LocalDate endDate, String category);
 
 
@@ -0,0 +1,12 @@
+package kopo.newproject.repository.mongo;
+
+import kopo.newproject.repository.entity.mongo.SpendingRollupEntity;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.List;
+
+public interface SpendingRollupRepository extends MongoRepository<SpendingRollupEntity, String> {
+
+    // 사용자의 특정 월 카테고리별 합계
+    List<SpendingRollupEntity> findByUserIdAndYearMonth(String userId, String yearMonth);
+}
@@ -5,10 +5,23 @@ import kopo.newproject.repository.entity.mongo.AIAnalysisEntity;
 import java.util.List;
 import java.util.Map;
 import java.time.YearMonth;
+import java.util.function.Consumer;
 
 public interface IAIAnalysisService {
 
-    String analyze(String userId, String yearMonth);
+    /**
+     * 월간 소비 데이터를 AI로 분석합니다.
+     * @param force true 이면 동일 입력의 기존 분석 결과가 있어도 다시 분석
+     */
+    String analyze(String userId, String yearMonth, boolean force);
+
+    /**
+     * analyze 와 같지만 GPT 응답을 스트리밍으로 받아 토큰이 도착할 때마다 onToken 으로 전달합니다.
+     * 캐시된 결과를 반환하는 경우 onToken 은 호출되지 않습니다.
+     *
+     * @return 저장된 분석 결과 JSON
+     */
+    String analyzeStreaming(String userId, String yearMonth, boolean force, Consumer<String> onToken);
 
     AIAnalysisEntity getAnalysisByMonth(String userId, String yearMonth);
 
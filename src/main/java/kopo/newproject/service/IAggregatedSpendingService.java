@@ -1,5 +1,6 @@
 package kopo.newproject.service;
 
+import kopo.newproject.dto.CohortComparisonDTO;
 import kopo.newproject.repository.entity.mongo.AggregatedSpendingEntity;
 
 import java.util.List;
@@ -21,5 +22,15 @@ public interface IAggregatedSpendingService {
      * @throws Exception
      */
     AggregatedSpendingEntity getAggregatedSpendingByGroup(String gender, String ageGroup) throws Exception;
+
+    /**
+     * 특정 성별 및 연령대 그룹의 카테고리별 평균/분위수와 사용자의 백분위를 조회합니다.
+     * @param userId 백분위를 계산할 사용자 ID (null 이면 백분위 없이 그룹 분포만 반환)
+     * @param gender 성별 (M 또는 F)
+     * @param ageGroup 연령대 (예: "20s")
+     * @return 비교 결과 (그룹 데이터가 없으면 null)
+     * @throws Exception
+     */
+    CohortComparisonDTO compareWithGroup(String userId, String gender, String ageGroup) throws Exception;
 }
 
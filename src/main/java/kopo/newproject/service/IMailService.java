@@ -2,10 +2,17 @@ package kopo.newproject.service;
 
 import kopo.newproject.dto.MailDTO;
 
+import java.util.List;
+
 public interface IMailService {
 
     int doSendMail(MailDTO mailDTO);
 
+    // 메일을 Outbox 에 저장 (호출 측 트랜잭션에 참여, 실제 발송은 백그라운드에서 수행)
+    void enqueueMail(MailDTO mailDTO);
+
+    void enqueueMails(List<MailDTO> mailDTOs);
+
     String generateVerificationCode();
 
     int sendVerificationMail(String toMail, String verificationCode);
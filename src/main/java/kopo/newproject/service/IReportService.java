@@ -1,6 +1,7 @@
 package kopo.newproject.service;
 
 import kopo.newproject.dto.MonthlyReportDTO;
+import kopo.newproject.dto.ReportRunProgressDTO;
 
 import java.time.YearMonth;
 
@@ -25,9 +26,27 @@ public interface IReportService {
      */
     void generateAndSendReportForUser(String userId, YearMonth reportMonth) throws Exception;
 
+    /**
+     * 특정 사용자의 월간 리포트 HTML 을 반환합니다.
+     * 지난 달 리포트는 보관본을 그대로 읽고, 보관본이 없으면 생성한 뒤 보관합니다.
+     *
+     * @param userId      리포트를 조회할 사용자 ID
+     * @param reportMonth 리포트 대상 연월
+     * @return 렌더링된 리포트 HTML
+     * @throws Exception 리포트 조회/생성 중 발생할 수 있는 예외
+     */
+    String getReportHtml(String userId, YearMonth reportMonth) throws Exception;
+
     /**
      * 모든 사용자에게 월간 리포트를 발송하는 스케줄링된 작업을 실행합니다.
      */
     void sendMonthlyReportToAllUsers();
 
+    /**
+     * 가장 최근(또는 진행 중인) 월간 리포트 일괄 발송의 진행 상황을 반환합니다.
+     *
+     * @return 실행 이력이 없으면 null
+     */
+    ReportRunProgressDTO getMonthlyReportProgress();
+
 }
@@ -1,20 +1,59 @@
 package kopo.newproject.service;
 
+import kopo.newproject.dto.BudgetUsageKey;
+import kopo.newproject.dto.SpendingPageDTO;
 import kopo.newproject.dto.SpendingRequest;
 import kopo.newproject.repository.entity.mongo.SpendingEntity;
 
+import java.time.LocalDate;
 import java.time.YearMonth;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 import java.math.BigDecimal;
 
 public interface ISpendingService {
 
+    // 기간별 지출 합계 집계 단위
+    enum Granularity {
+        DAY("%Y-%m-%d"),
+        MONTH("%Y-%m"),
+        YEAR("%Y");
+
+        private final String dateFormat;
+
+        Granularity(String dateFormat) {
+            this.dateFormat = dateFormat;
+        }
+
+        public String getDateFormat() {
+            return dateFormat;
+        }
+    }
+
     // 지출 내역을 월별 및 카테고리별로 필터링하여 가져오는 메서드
     List<SpendingEntity> getSpendings(String userId, YearMonth month, String category);
 
     SpendingEntity getSpendingById(String userId, String id);
 
+    /**
+     * 지출 내역을 최신순(date desc, _id desc) 키셋 페이지로 조회합니다.
+     *
+     * @param cursor 이전 페이지의 nextCursor (첫 페이지면 null)
+     * @param size   페이지 크기 (서버 최대값으로 제한됨)
+     * @throws IllegalArgumentException 커서 형식이 잘못된 경우
+     */
+    SpendingPageDTO getSpendingPage(String userId, String category, String cursor, int size);
+
+    /**
+     * 조건에 맞는 지출 내역을 MongoDB 커서에서 한 건씩 읽어 consumer 에 전달합니다. (전체 목록을 메모리에 올리지 않음)
+     *
+     * @param from 시작일 (포함, null 이면 제한 없음)
+     * @param to   종료일 (포함, null 이면 제한 없음)
+     */
+    void streamSpendings(String userId, LocalDate from, LocalDate to, String category, Consumer<SpendingEntity> consumer);
+
     SpendingEntity saveSpending(String userId, SpendingRequest request);
 
     boolean updateSpending(String userId, String id, SpendingRequest request);
@@ -22,10 +61,33 @@ public interface ISpendingService {
     boolean deleteSpending(String userId, String id);
 
     Map<String, Integer> getTotalAmountGroupedByCategory(String userId, YearMonth month);
-    Map<String, Integer> getTotalSpendingByMonth(String userId, YearMonth from, YearMonth to);
+    Map<String, Long> getTotalSpendingByMonth(String userId, YearMonth from, YearMonth to);
+
+    /**
+     * 기간 내 지출 합계를 집계 단위별로 반환합니다. (from, to 모두 포함, 키 오름차순)
+     *
+     * @param granularity 집계 단위 (일/월/연)
+     * @return 예: MONTH 인 경우 {"2025-03": 120000, "2025-04": 98000}
+     */
+    Map<String, Long> getSpendingSeries(String userId, LocalDate from, LocalDate to, Granularity granularity);
 
     BigDecimal calculateMonthlySpendingSum(String userId, int year, int month, String category) throws Exception;
 
+    /**
+     * 여러 (연, 월, 카테고리)의 사용액을 한 번의 집계로 계산합니다.
+     *
+     * @param keys 조회할 키 목록 (category 가 null 이면 해당 월 전체 합계)
+     * @return 키별 사용액 (지출이 없으면 0)
+     */
+    Map<BudgetUsageKey, BigDecimal> calculateMonthlySpendingSums(String userId, Collection<BudgetUsageKey> keys);
+
+    /**
+     * 여러 사용자의 특정 월 카테고리별 지출 합계를 한 번의 집계로 조회합니다.
+     *
+     * @return 사용자 ID → (카테고리 → 합계), 지출이 없는 사용자는 포함되지 않음
+     */
+    Map<String, Map<String, BigDecimal>> getCategoryTotalsByUsers(Collection<String> userIds, YearMonth month);
+
     Map<String, BigDecimal> getSpendingByCategory(String userId, YearMonth reportMonth) throws Exception;
 
 }
@@ -1,13 +1,19 @@
 package kopo.newproject.service.impl;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.annotation.PostConstruct;
 import kopo.newproject.dto.GptResponseDTO;
 import kopo.newproject.dto.PredictionDTO;
 import kopo.newproject.repository.entity.mongo.AIAnalysisEntity;
 import kopo.newproject.repository.entity.mongo.SpendingEntity;
 import kopo.newproject.repository.mongo.AIAnalysisRepository;
 import kopo.newproject.service.IAIAnalysisService;
+import kopo.newproject.util.EncryptUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -18,12 +24,20 @@ import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.YearMonth;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 @Slf4j
 @Service
@@ -35,6 +49,23 @@ public class AIAnalysisService implements IAIAnalysisService {
     private final AnalysisPreprocessorService preprocessorService;
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper;
+    private final AnalysisRateLimiter analysisRateLimiter;
+
+    private static final String MODEL = "gpt-4";
+    // 프롬프트를 수정하면 올려서 기존 캐시가 재사용되지 않도록 함
+    private static final int PROMPT_VERSION = 1;
+
+    private ObjectMapper canonicalMapper;
+
+    // (사용자|연월|force) → 진행 중인 분석
+    private final Map<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        canonicalMapper = objectMapper.copy()
+                .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true)
+                .configure(JsonGenerator.Feature.WRITE_BIGDECIMAL_AS_PLAIN, true);
+    }
 
     @Value("${openai.api.url}")
     private String openAiUrl;
@@ -114,35 +145,90 @@ public class AIAnalysisService implements IAIAnalysisService {
                 .build();
     }
 
+    /**
+     * 같은 (사용자, 연월)의 분석이 이미 진행 중이면 새로 시작하지 않고 그 결과를 함께 기다립니다.
+     * 더블 클릭이나 여러 탭에서의 동시 요청이 전처리/GPT 호출/저장을 중복 수행하지 않도록 합니다.
+     * force 요청은 캐시된 결과를 반환할 수 있는 일반 요청에 합류하지 않도록 별도로 묶습니다.
+     */
     @Override
-    public String analyze(String userId, String yearMonthStr) {
+    public String analyze(String userId, String yearMonthStr, boolean force) {
+        return singleFlight(userId, yearMonthStr, force, () -> doAnalyze(userId, yearMonthStr, force));
+    }
+
+    /**
+     * 진행 중인 분석에 합류한 경우 토큰은 전달되지 않고 최종 결과만 반환됩니다.
+     */
+    @Override
+    public String analyzeStreaming(String userId, String yearMonthStr, boolean force, Consumer<String> onToken) {
+        return singleFlight(userId, yearMonthStr, force, () -> doAnalyzeStreaming(userId, yearMonthStr, force, onToken));
+    }
+
+    private String singleFlight(String userId, String yearMonth, boolean force, Supplier<String> analysis) {
+        String key = userId + "|" + yearMonth + "|" + force;
+        CompletableFuture<String> flight = new CompletableFuture<>();
+        CompletableFuture<String> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            log.info("AI 분석 - 진행 중인 동일 분석에 합류 (userId: {}, month: {})", userId, yearMonth);
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException re ? re : e;
+            }
+        }
+
+        try {
+            String result = analysis.get();
+            flight.complete(result);
+            return result;
+        } catch (Throwable e) {
+            // Error 로 끝나더라도 합류한 요청이 영원히 기다리지 않도록 완료 처리
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    private String doAnalyze(String userId, String yearMonthStr, boolean force) {
         YearMonth yearMonth = YearMonth.parse(yearMonthStr);
         long preprocessStartTime = System.currentTimeMillis();
         Map<String, Object> data = preprocessorService.generateAnalysisInput(userId, yearMonth);
         log.info("AI 분석 - 데이터 전처리 완료 ({}ms)", System.currentTimeMillis() - preprocessStartTime);
-        return analyzeUserSpending(userId, yearMonth, data);
+
+        String inputHash = hashInput(data);
+        if (!force) {
+            // 입력이 같으면 GPT 를 다시 호출하지 않고 저장된 결과 반환
+            Optional<AIAnalysisEntity> cached = aiAnalysisRepository
+                    .findTopByUserIdAndMonthAndInputHashOrderByCreatedAtDesc(userId, yearMonth.toString(), inputHash);
+            if (cached.isPresent()) {
+                log.info("AI 분석 - 동일 입력의 기존 결과 반환 (analysisId: {})", cached.get().getId());
+                return cached.get().getResult();
+            }
+        }
+        return analyzeUserSpending(userId, yearMonth, data, inputHash);
     }
 
-    private String analyzeUserSpending(String userId, YearMonth yearMonth, Map<String, Object> preprocessedData) {
-        long startTime = System.currentTimeMillis();
+    /**
+     * 전처리 데이터를 키 정렬된 JSON 으로 직렬화하여 모델/프롬프트 버전과 함께 해시합니다.
+     */
+    private String hashInput(Map<String, Object> preprocessedData) {
         try {
-            String requestJson = objectMapper.writeValueAsString(preprocessedData);
-            log.info("AI 분석 - 전처리 데이터 직렬화 완료 ({}ms)", System.currentTimeMillis() - startTime);
+            String canonicalJson = canonicalMapper.writeValueAsString(preprocessedData);
+            return EncryptUtil.sha256Hex(MODEL + "|" + PROMPT_VERSION + "|" + canonicalJson);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("분석 입력 직렬화 실패", e);
+        }
+    }
 
+    private String analyzeUserSpending(String userId, YearMonth yearMonth, Map<String, Object> preprocessedData, String inputHash) {
+        long startTime = System.currentTimeMillis();
+        try {
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.APPLICATION_JSON);
             headers.setBearerAuth(openAiKey);
 
-            Map<String, Object> body = Map.of(
-                    "model", "gpt-4",
-                    "messages", new Object[]{
-                            Map.of("role", "system", "content", "You are a financial analysis AI."),
-                            Map.of("role", "user", "content", generatePrompt(preprocessedData))
-                    }
-            );
-
             long apiCallStartTime = System.currentTimeMillis();
-            HttpEntity<?> entity = new HttpEntity<>(body, headers);
+            HttpEntity<?> entity = new HttpEntity<>(buildRequestBody(preprocessedData, false), headers);
             ResponseEntity<GptResponseDTO> response = restTemplate.exchange(openAiUrl, HttpMethod.POST, entity, GptResponseDTO.class);
             log.info("AI 분석 - OpenAI API 호출 완료 ({}ms)", System.currentTimeMillis() - apiCallStartTime);
 
@@ -153,29 +239,113 @@ public class AIAnalysisService implements IAIAnalysisService {
                     .map(choices -> choices.get(0).getMessage().getContent())
                     .orElseThrow(() -> new RuntimeException("GPT 응답에서 content를 찾을 수 없습니다."));
 
-            long parseSaveStartTime = System.currentTimeMillis();
-            // content 내부의 JSON 파싱
-            Map<String, String> parsed = objectMapper.readValue(jsonContent, new TypeReference<>() {});
-
-            AIAnalysisEntity analysis = AIAnalysisEntity.builder()
-                    .userId(userId)
-                    .month(yearMonth.toString())
-                    .requestData(requestJson)
-                    .result(objectMapper.writeValueAsString(parsed))
-                    .createdAt(LocalDateTime.now())
-                    .version(1) // Simplified versioning
-                    .build();
-            aiAnalysisRepository.save(analysis);
-            log.info("AI 분석 - 응답 파싱 및 DB 저장 완료 ({}ms)", System.currentTimeMillis() - parseSaveStartTime);
-
+            String result = saveResult(userId, yearMonth, preprocessedData, jsonContent, inputHash);
             log.info("AI 분석 전체 완료 ({}ms)", System.currentTimeMillis() - startTime);
-            return objectMapper.writeValueAsString(parsed);
+            return result;
         } catch (Exception e) {
             log.error("Error during GPT analysis: {}", e.getMessage(), e);
-            throw new RuntimeException("GPT 분석 실패: " + e.getMessage());
+            throw new RuntimeException("GPT 분석 실패: " + e.getMessage(), e);
+        }
+    }
+
+    private String doAnalyzeStreaming(String userId, String yearMonthStr, boolean force, Consumer<String> onToken) {
+        YearMonth yearMonth = YearMonth.parse(yearMonthStr);
+        Map<String, Object> data = preprocessorService.generateAnalysisInput(userId, yearMonth);
+
+        String inputHash = hashInput(data);
+        if (!force) {
+            Optional<AIAnalysisEntity> cached = aiAnalysisRepository
+                    .findTopByUserIdAndMonthAndInputHashOrderByCreatedAtDesc(userId, yearMonth.toString(), inputHash);
+            if (cached.isPresent()) {
+                log.info("AI 분석(스트리밍) - 동일 입력의 기존 결과 반환 (analysisId: {})", cached.get().getId());
+                return cached.get().getResult();
+            }
+        }
+
+        long startTime = System.currentTimeMillis();
+        long[] firstTokenAt = {0};
+        try {
+            Map<String, Object> body = buildRequestBody(data, true);
+            String jsonContent = restTemplate.execute(openAiUrl, HttpMethod.POST, request -> {
+                request.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+                request.getHeaders().setAccept(List.of(MediaType.TEXT_EVENT_STREAM));
+                request.getHeaders().setBearerAuth(openAiKey);
+                request.getBody().write(objectMapper.writeValueAsBytes(body));
+            }, response -> {
+                // 응답은 "data: {...}" 줄 단위의 SSE 이며 "data: [DONE]" 으로 끝남
+                StringBuilder content = new StringBuilder();
+                BufferedReader reader = new BufferedReader(new InputStreamReader(response.getBody(), StandardCharsets.UTF_8));
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!line.startsWith("data:")) {
+                        continue;
+                    }
+                    String payload = line.substring(5).trim();
+                    if ("[DONE]".equals(payload)) {
+                        break;
+                    }
+                    JsonNode token = objectMapper.readTree(payload).path("choices").path(0).path("delta").path("content");
+                    if (token.isTextual() && !token.asText().isEmpty()) {
+                        if (firstTokenAt[0] == 0) {
+                            firstTokenAt[0] = System.currentTimeMillis();
+                        }
+                        content.append(token.asText());
+                        onToken.accept(token.asText());
+                    }
+                }
+                return content.toString();
+            });
+            log.info("AI 분석(스트리밍) - 첫 토큰 {}ms, 전체 수신 {}ms",
+                    firstTokenAt[0] == 0 ? -1 : firstTokenAt[0] - startTime, System.currentTimeMillis() - startTime);
+
+            if (jsonContent == null || jsonContent.isBlank()) {
+                throw new RuntimeException("GPT 응답에서 content를 찾을 수 없습니다.");
+            }
+            return saveResult(userId, yearMonth, data, jsonContent, inputHash);
+        } catch (Exception e) {
+            log.error("Error during GPT streaming analysis: {}", e.getMessage(), e);
+            throw new RuntimeException("GPT 분석 실패: " + e.getMessage(), e);
         }
     }
 
+    private Map<String, Object> buildRequestBody(Map<String, Object> preprocessedData, boolean stream) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("model", MODEL);
+        body.put("messages", new Object[]{
+                Map.of("role", "system", "content", "You are a financial analysis AI."),
+                Map.of("role", "user", "content", generatePrompt(preprocessedData))
+        });
+        if (stream) {
+            body.put("stream", true);
+        }
+        return body;
+    }
+
+    /**
+     * GPT 가 반환한 JSON content 를 검증하여 분석 이력으로 저장하고, 정규화된 결과 JSON 을 반환합니다.
+     */
+    private String saveResult(String userId, YearMonth yearMonth, Map<String, Object> preprocessedData,
+                              String jsonContent, String inputHash) throws JsonProcessingException {
+        long parseSaveStartTime = System.currentTimeMillis();
+        // content 내부의 JSON 파싱
+        Map<String, String> parsed = objectMapper.readValue(jsonContent, new TypeReference<>() {});
+        String result = objectMapper.writeValueAsString(parsed);
+
+        AIAnalysisEntity analysis = AIAnalysisEntity.builder()
+                .userId(userId)
+                .month(yearMonth.toString())
+                .requestData(objectMapper.writeValueAsString(preprocessedData))
+                .result(result)
+                .inputHash(inputHash)
+                .createdAt(LocalDateTime.now())
+                .version(1) // Simplified versioning
+                .build();
+        aiAnalysisRepository.save(analysis);
+        analysisRateLimiter.recordUsage(userId);
+        log.info("AI 분석 - 응답 파싱 및 DB 저장 완료 ({}ms)", System.currentTimeMillis() - parseSaveStartTime);
+        return result;
+    }
+
     private String generatePrompt(Map<String, Object> data) {
         return """
 당신은 사용자의 소비 데이터를 분석하는 전문 금융 분석 AI입니다.
@@ -1,14 +1,31 @@
 package kopo.newproject.service.impl;
 
-import kopo.newproject.repository.entity.jpa.UserInfoEntity;
+import kopo.newproject.dto.CohortComparisonDTO;
+import kopo.newproject.dto.SpendingChangedEvent;
+import kopo.newproject.dto.SpendingDelta;
+import kopo.newproject.dto.UserCohortDTO;
 import kopo.newproject.repository.entity.mongo.AggregatedSpendingEntity;
+import kopo.newproject.repository.entity.mongo.CohortMembershipEntity;
 import kopo.newproject.repository.entity.mongo.SpendingEntity;
+import kopo.newproject.repository.entity.mongo.SpendingRollupEntity;
 import kopo.newproject.repository.jpa.UserInfoRepository;
 import kopo.newproject.repository.mongo.AggregatedSpendingRepository;
-import kopo.newproject.repository.mongo.SpendingRepository;
 import kopo.newproject.service.IAggregatedSpendingService;
-import kopo.newproject.util.AgeCalculator;
+import kopo.newproject.util.MongoKeyUtil;
+import kopo.newproject.util.SpendingHistogram;
 import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.slf4j.Logger;
@@ -19,9 +36,17 @@ import java.math.RoundingMode;
 import java.time.YearMonth;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
 
 /**
  * 내부 사용자 데이터 기반 소비 비교 관련 서비스 구현체
@@ -33,110 +58,139 @@ public class AggregatedSpendingServiceImpl implements IAggregatedSpendingService
     private static final Logger log = LoggerFactory.getLogger(AggregatedSpendingServiceImpl.class);
 
     private final UserInfoRepository userInfoRepository;
-    private final SpendingRepository spendingRepository;
     private final AggregatedSpendingRepository aggregatedSpendingRepository;
+    private final MongoTemplate mongoTemplate;
+    private final SpendingRollupService spendingRollupService;
+
+    // 새벽 재집계(쓰기 락) 중에는 증분 갱신(읽기 락)이 끼어들지 않도록 함
+    // 재집계가 읽은 지출과 이미 반영된 그룹 소속/총액 위에 증분이 한 번 더 더해지거나, 재생성 중인 소속을 덮어쓰지 않도록 하기 위함
+    private final ReentrantReadWriteLock reconcileLock = new ReentrantReadWriteLock();
+
+    // 증분 갱신이 재집계가 끝나기를 기다리는 최대 시간 (넘으면 건너뛰고 다음 재집계에서 보정)
+    @Value("${aggregated-spending.reconcile-wait-seconds:30}")
+    private long reconcileWaitSeconds;
+
+    // Helper classes for aggregation result
+    private static class CategoryTotal {
+        private String category;
+        private BigDecimal total;
+
+        public String getCategory() { return category; }
+        public void setCategory(String category) { this.category = category; }
+        public BigDecimal getTotal() { return total; }
+        public void setTotal(BigDecimal total) { this.total = total; }
+    }
 
-
-
+    private static class UserMonthSpending {
+        private String id; // userId
+        private List<CategoryTotal> categories;
+        private long spendingCount;
+
+        public String getId() { return id; }
+        public void setId(String id) { this.id = id; }
+        public List<CategoryTotal> getCategories() { return categories; }
+        public void setCategories(List<CategoryTotal> categories) { this.categories = categories; }
+        public long getSpendingCount() { return spendingCount; }
+        public void setSpendingCount(long spendingCount) { this.spendingCount = spendingCount; }
+    }
 
     /**
      * 전체 사용자의 현재 월 소비 데이터를 집계하여 성별/연령대별 평균을 계산하고 MongoDB에 저장합니다.
      * 매일 새벽 4시에 자동으로 실행됩니다.
+     * 지출은 (사용자, 카테고리)로 한 번에 집계하고, 사용자 → 그룹 매핑은 USER_INFO 에서 한 번만 읽어 메모리에서 결합합니다.
+     * 평소에는 onSpendingChanged 가 증분으로 갱신하므로, 이 작업은 누락/오차와 연령대 변경을 바로잡는 재집계 역할을 합니다.
+     * 지출 집계부터 저장까지 reconcileLock 의 쓰기 락을 잡아, 그 사이의 증분 갱신은 재집계가 끝난 뒤에 반영됩니다.
      * @return 저장된 집계 데이터 리스트
      * @throws Exception 데이터 처리 중 발생할 수 있는 예외
      */
     @Scheduled(cron = "0 0 4 * * ?") // 매일 새벽 4시에 실행
     @Override
     public List<AggregatedSpendingEntity> aggregateAndCacheSpendingData() throws Exception {
+        reconcileLock.writeLock().lock();
+        try {
+            return reconcile();
+        } finally {
+            reconcileLock.writeLock().unlock();
+        }
+    }
+
+    private List<AggregatedSpendingEntity> reconcile() {
         log.info("START: aggregateAndCacheSpendingData");
+        long startTime = System.currentTimeMillis();
 
         // 1. 집계 기준 월 설정 (현재 월)
         YearMonth currentMonth = YearMonth.now();
         log.info("Aggregation target month: {}", currentMonth);
 
-        // 2. 모든 사용자 정보 조회
-        List<UserInfoEntity> users = userInfoRepository.findAll();
-        log.info("Found {} total users.", users.size());
-
-        // 3. 그룹별(성별+연령대) 데이터 집계를 위한 자료구조 초기화
-        // Key: "성별_연령대" (e.g., "M_20대"), Value: { "카테고리": { "total": 총액, "count": 횟수 } }
+        // 2. 사용자 → 그룹 키 매핑 (e.g., "M_20s"), 동일한 그룹 키 문자열은 하나의 인스턴스를 공유
+        Map<String, String> cohortKeys = new HashMap<>();
+        Map<String, String> userCohort = new HashMap<>();
+        for (UserCohortDTO cohort : userInfoRepository.findAllCohorts()) {
+            String key = cohort.cohortKey();
+            if (key != null) {
+                userCohort.put(cohort.userId(), cohortKeys.computeIfAbsent(key, k -> k));
+            }
+        }
+        log.info("Mapped {} users into {} groups.", userCohort.size(), cohortKeys.size());
+
+        // 3. 이번 달 지출을 (사용자, 카테고리)로 합산한 뒤 사용자별 한 행으로 묶는 단일 집계
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("date").gte(currentMonth.atDay(1)).lt(currentMonth.plusMonths(1).atDay(1))),
+                Aggregation.group("userId", "category").sum("amount").as("total").count().as("count"),
+                Aggregation.group("userId")
+                        .push(new Document("category", "$_id.category").append("total", "$total")).as("categories")
+                        .sum("count").as("spendingCount")
+        ).withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+
+        // Key: "성별_연령대", Value: { "카테고리": 총액 }
         Map<String, Map<String, BigDecimal>> groupCategoryTotalSpending = new HashMap<>();
+        Map<String, Map<String, Map<String, Long>>> groupCategoryHistogram = new HashMap<>();
         Map<String, Long> groupUserCount = new HashMap<>();
+        List<CohortMembershipEntity> memberships = new ArrayList<>();
 
-        // 4. 각 사용자별로 데이터 처리
-        for (UserInfoEntity user : users) {
-            try {
-                String userId = user.getUserId();
-                String gender = user.getGender();
-                String birthDate = user.getBirthDate();
-
-                log.debug("Processing user: {} (Gender: {}, BirthDate: {})", userId, gender, birthDate);
-
-                // 4-1. 필수 정보(성별, 생년월일) 누락 시 집계에서 제외
-                if (gender == null || birthDate == null || gender.isEmpty() || birthDate.isEmpty()) {
-                    log.warn("User {} is missing profile information (gender or birthDate). Skipping.", userId);
-                    continue;
-                }
-
-                // 4-2. 연령 및 연령대 계산
-                int age = AgeCalculator.calculateAge(birthDate);
-                if (age == -1) {
-                    log.warn("Failed to calculate age for user {}. Skipping.", userId);
-                    continue;
+        try (Stream<UserMonthSpending> rows = mongoTemplate.aggregateStream(aggregation, SpendingEntity.class, UserMonthSpending.class)) {
+            rows.forEach(row -> {
+                String groupKey = userCohort.get(row.getId());
+                if (groupKey == null) {
+                    return; // 프로필 정보(성별, 생년월일)가 없는 사용자는 집계에서 제외
                 }
-                String ageGroup = AgeCalculator.getAgeGroup(age);
-                log.debug("User {} belongs to age group: {}", userId, ageGroup);
-
-                // 4-3. 그룹 키 생성
-                String groupKey = gender + "_" + ageGroup; // e.g., "M_20대"
 
-                // 4-4. 해당 사용자의 현재 월 지출 데이터 조회
-                List<SpendingEntity> userSpendings = spendingRepository.findByUserIdAndDateBetween(userId, currentMonth.atDay(1), currentMonth.atEndOfMonth().plusDays(1));
-                if (userSpendings.isEmpty()) {
-                    log.debug("User {} has no spending data for {}. Skipping.", userId, currentMonth);
-                    continue; // 이번 달 지출이 없으면 다음 사용자로
+                // 그룹의 사용자 수 카운트 (지출이 있는 사용자만 카운트)
+                groupUserCount.merge(groupKey, 1L, Long::sum);
+                memberships.add(CohortMembershipEntity.builder()
+                        .id(CohortMembershipEntity.toId(row.getId(), currentMonth.toString()))
+                        .userId(row.getId())
+                        .month(currentMonth.toString())
+                        .cohortKey(groupKey)
+                        .spendingCount(row.getSpendingCount())
+                        .build());
+
+                Map<String, BigDecimal> categorySpending = groupCategoryTotalSpending.computeIfAbsent(groupKey, k -> new HashMap<>());
+                Map<String, Map<String, Long>> categoryHistogram = groupCategoryHistogram.computeIfAbsent(groupKey, k -> new HashMap<>());
+                for (CategoryTotal categoryTotal : row.getCategories()) {
+                    if (isBlank(categoryTotal.getCategory()) || categoryTotal.getTotal() == null) {
+                        continue;
+                    }
+                    categorySpending.merge(categoryTotal.getCategory(), categoryTotal.getTotal(), BigDecimal::add);
+                    // 사용자별 카테고리 월 합계의 분포
+                    SpendingHistogram.add(categoryHistogram.computeIfAbsent(categoryTotal.getCategory(), k -> new HashMap<>()),
+                            categoryTotal.getTotal(), 1);
                 }
-                log.debug("Found {} spending records for user {} in {}", userSpendings.size(), userId, currentMonth);
-
-                // 4-5. 그룹의 사용자 수 카운트 (지출이 있는 사용자만 카운트)
-                groupUserCount.put(groupKey, groupUserCount.getOrDefault(groupKey, 0L) + 1);
-
-                // 4-6. 사용자별 카테고리 지출 합산 및 그룹 총계에 반영
-                userSpendings.forEach(spending -> {
-                    String category = spending.getCategory();
-                    BigDecimal amount = spending.getAmount();
-
-                    // 그룹의 카테고리별 총 지출액 업데이트
-                    Map<String, BigDecimal> categorySpending = groupCategoryTotalSpending.computeIfAbsent(groupKey, k -> new HashMap<>());
-                    categorySpending.put(category, categorySpending.getOrDefault(category, BigDecimal.ZERO).add(amount));
-                });
-                log.debug("Added user {}'s spending to group {}. Current totals: {}", userId, groupKey, groupCategoryTotalSpending.get(groupKey));
-
-            } catch (Exception e) {
-                log.error("Error processing user data for userId: {}. Skipping this user.", user.getUserId(), e);
-                // 개별 사용자 오류가 전체 배치에 영향을 주지 않도록 루프 계속
-            }
+            });
         }
 
-        log.info("Finished processing all users. Aggregating results for {} groups.", groupCategoryTotalSpending.size());
+        log.info("Finished aggregating spending. Aggregating results for {} groups.", groupCategoryTotalSpending.size());
 
-        // 5. 그룹별 평균 계산 및 최종 데이터 생성
+        // 4. 그룹별 평균 계산 및 최종 데이터 생성
         List<AggregatedSpendingEntity> aggregatedDataList = new ArrayList<>();
         for (Map.Entry<String, Map<String, BigDecimal>> entry : groupCategoryTotalSpending.entrySet()) {
             String groupKey = entry.getKey();
-            String[] parts = groupKey.split("_");
+            String[] parts = groupKey.split("_", 2);
             String gender = parts[0];
             String ageGroup = parts[1];
             long userCountInGroup = groupUserCount.getOrDefault(groupKey, 0L);
 
-            if (userCountInGroup == 0) {
-                log.warn("Group {} has 0 users with spending. Skipping average calculation.", groupKey);
-                continue;
-            }
-
-            log.debug("Calculating averages for group {} (Gender: {}, AgeGroup: {}, UserCount: {})", groupKey, gender, ageGroup, userCountInGroup);
-
-            // 5-1. 카테고리별 평균 지출 계산
+            // 4-1. 카테고리별 평균 지출 계산
             Map<String, BigDecimal> categoryAverageSpending = new HashMap<>();
             entry.getValue().forEach((category, totalAmount) -> {
                 BigDecimal averageAmount = totalAmount.divide(BigDecimal.valueOf(userCountInGroup), 2, RoundingMode.HALF_UP);
@@ -144,36 +198,262 @@ public class AggregatedSpendingServiceImpl implements IAggregatedSpendingService
             });
             log.debug("Calculated category averages for group {}: {}", groupKey, categoryAverageSpending);
 
-            // 5-2. 최종 집계 엔티티 생성
-            AggregatedSpendingEntity aggregatedSpending = AggregatedSpendingEntity.builder()
-                    .id(currentMonth.toString() + "_" + groupKey) // 고유 ID 생성 (e.g., "2025-07_M_20대")
+            // 4-2. 최종 집계 엔티티 생성 (카테고리명은 문서 키로 쓰이므로 인코딩하여 저장)
+            aggregatedDataList.add(AggregatedSpendingEntity.builder()
+                    .id(currentMonth.toString() + "_" + groupKey) // 고유 ID 생성 (e.g., "2025-07_M_20s")
                     .month(currentMonth)
                     .gender(gender)
                     .ageGroup(ageGroup)
-                    .categoryAverageSpending(categoryAverageSpending)
+                    .categoryAverageSpending(MongoKeyUtil.encodeKeys(categoryAverageSpending))
+                    .categoryTotalSpending(MongoKeyUtil.encodeKeys(entry.getValue()))
+                    .categoryHistogram(MongoKeyUtil.encodeKeys(groupCategoryHistogram.get(groupKey)))
                     .userCount(userCountInGroup)
-                    .build();
-            aggregatedDataList.add(aggregatedSpending);
+                    .build());
         }
 
-        // 6. 기존 집계 데이터 삭제 후 새로 저장 (멱등성 보장)
+        // 5. 한 번의 bulk upsert 로 저장하고, 이번 집계에 없는 해당 월 그룹은 삭제 (멱등성 보장)
+        List<String> writtenIds = new ArrayList<>(aggregatedDataList.size());
         if (!aggregatedDataList.isEmpty()) {
-            // 특정 월의 데이터만 삭제하여 다른 월의 데이터에 영향을 주지 않도록 수정
-            List<AggregatedSpendingEntity> existingDataForMonth = aggregatedSpendingRepository.findByMonth(currentMonth);
-            if (!existingDataForMonth.isEmpty()) {
-                aggregatedSpendingRepository.deleteAll(existingDataForMonth);
-                log.info("Deleted {} existing aggregated data records for month {}.", existingDataForMonth.size(), currentMonth);
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AggregatedSpendingEntity.class);
+            for (AggregatedSpendingEntity entity : aggregatedDataList) {
+                bulk.replaceOne(Query.query(Criteria.where("_id").is(entity.getId())), entity, FindAndReplaceOptions.options().upsert());
+                writtenIds.add(entity.getId());
             }
-            aggregatedSpendingRepository.saveAll(aggregatedDataList);
-            log.info("Successfully saved {} new aggregated data records.", aggregatedDataList.size());
+            bulk.execute();
         } else {
-            log.warn("No data to aggregate. Skipping database operations.");
+            log.warn("No data to aggregate for month {}.", currentMonth);
+        }
+        long removed = mongoTemplate.remove(Query.query(Criteria.where("month").is(currentMonth).and("_id").nin(writtenIds)),
+                AggregatedSpendingEntity.class).getDeletedCount();
+
+        // 6. 증분 갱신의 기준이 되는 사용자별 그룹 소속도 제자리에서 갱신하고, 이번 집계에 없는 소속만 삭제
+        //    (전체 삭제 후 재생성하면 그 사이에 소속이 비어 보여 증분 갱신이 사용자 수를 다시 늘리게 됨)
+        List<String> membershipIds = new ArrayList<>(memberships.size());
+        if (!memberships.isEmpty()) {
+            BulkOperations membershipBulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, CohortMembershipEntity.class);
+            for (CohortMembershipEntity membership : memberships) {
+                membershipBulk.upsert(Query.query(Criteria.where("_id").is(membership.getId())), new Update()
+                        .set("userId", membership.getUserId())
+                        .set("month", membership.getMonth())
+                        .set("cohortKey", membership.getCohortKey())
+                        .set("spendingCount", membership.getSpendingCount()));
+                membershipIds.add(membership.getId());
+            }
+            membershipBulk.execute();
         }
+        mongoTemplate.remove(Query.query(Criteria.where("month").is(currentMonth.toString()).and("_id").nin(membershipIds)),
+                CohortMembershipEntity.class);
 
-        log.info("END: aggregateAndCacheSpendingData");
+        log.info("END: aggregateAndCacheSpendingData - upserted {}, removed {} stale records, {} memberships ({}ms)",
+                aggregatedDataList.size(), removed, memberships.size(), System.currentTimeMillis() - startTime);
         return aggregatedDataList;
     }
 
+    /**
+     * 지출 저장/수정/삭제 시 해당 사용자 그룹의 카테고리별 총액과 사용자 수를 증분 갱신합니다.
+     * 실패하더라도 지출 저장에는 영향을 주지 않으며, 새벽 재집계에서 보정됩니다.
+     * 재집계가 진행 중이면 끝날 때까지(최대 reconcileWaitSeconds) 기다렸다가 반영합니다.
+     */
+    @EventListener
+    public void onSpendingChanged(SpendingChangedEvent event) {
+        Lock lock = reconcileLock.readLock();
+        try {
+            if (!lock.tryLock(reconcileWaitSeconds, TimeUnit.SECONDS)) {
+                log.warn("Nightly reconciliation is still running. Skipping {} spending deltas; they will be reconciled by the next nightly job.",
+                        event.deltas().size());
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        try {
+            applySpendingDeltas(event.deltas());
+        } catch (Exception e) {
+            log.error("Failed to apply spending deltas to aggregated spending. Will be reconciled by the nightly job.", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void applySpendingDeltas(List<SpendingDelta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        // (사용자, 연월) 단위로 묶음
+        Map<String, List<SpendingDelta>> byMembership = new LinkedHashMap<>();
+        for (SpendingDelta d : deltas) {
+            byMembership.computeIfAbsent(CohortMembershipEntity.toId(d.userId(), d.yearMonth().toString()), k -> new ArrayList<>()).add(d);
+        }
+
+        // 그룹 소속은 한 번에 조회하고, 소속이 아직 없는 사용자(해당 월 첫 지출)만 USER_INFO 에서 그룹을 조회
+        Map<String, CohortMembershipEntity> memberships = new HashMap<>();
+        for (CohortMembershipEntity membership : mongoTemplate.find(
+                Query.query(Criteria.where("_id").in(byMembership.keySet())), CohortMembershipEntity.class)) {
+            memberships.put(membership.getId(), membership);
+        }
+        Set<String> userIds = new HashSet<>();
+        byMembership.forEach((membershipId, group) -> {
+            if (!memberships.containsKey(membershipId)) {
+                userIds.add(group.get(0).userId());
+            }
+        });
+        Map<String, String> userCohort = new HashMap<>();
+        if (!userIds.isEmpty()) {
+            for (UserCohortDTO cohort : userInfoRepository.findCohortsByUserIdIn(userIds)) {
+                String key = cohort.cohortKey();
+                if (key != null) {
+                    userCohort.put(cohort.userId(), key);
+                }
+            }
+        }
+
+        // 분포 갱신용: 증감분 반영 후의 사용자별 카테고리 월 합계 (롤업에서 삭제되었으면 0건)
+        Map<String, SpendingRollupEntity> rollups = new HashMap<>();
+        List<String> rollupIds = deltas.stream()
+                .map(d -> SpendingRollupEntity.toId(d.userId(), d.yearMonth().toString(), d.category()))
+                .toList();
+        for (SpendingRollupEntity rollup : mongoTemplate.find(Query.query(Criteria.where("_id").in(rollupIds)), SpendingRollupEntity.class)) {
+            rollups.put(rollup.getId(), rollup);
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AggregatedSpendingEntity.class);
+        boolean hasUpdates = false;
+
+        for (Map.Entry<String, List<SpendingDelta>> entry : byMembership.entrySet()) {
+            String membershipId = entry.getKey();
+            List<SpendingDelta> group = entry.getValue();
+            String userId = group.get(0).userId();
+            String month = group.get(0).yearMonth().toString();
+            long countDelta = group.stream().mapToLong(SpendingDelta::countDelta).sum();
+            CohortMembershipEntity existing = memberships.get(membershipId);
+
+            // 1. 사용자 그룹 소속 및 월 지출 건수 갱신 → 0건 ↔ 1건 이상 전환 시에만 그룹 사용자 수 변경
+            String cohortKey;
+            long userCountDelta = 0;
+            if (countDelta != 0) {
+                CohortMembershipEntity membership = mongoTemplate.findAndModify(
+                        Query.query(Criteria.where("_id").is(membershipId)),
+                        new Update()
+                                .setOnInsert("userId", userId)
+                                .setOnInsert("month", month)
+                                .setOnInsert("cohortKey", existing != null ? existing.getCohortKey() : userCohort.get(userId))
+                                .inc("spendingCount", countDelta),
+                        FindAndModifyOptions.options().returnNew(true).upsert(true),
+                        CohortMembershipEntity.class);
+
+                long after = membership.getSpendingCount();
+                long before = after - countDelta;
+                if (before <= 0 && after > 0) {
+                    userCountDelta = 1;
+                } else if (before > 0 && after <= 0) {
+                    userCountDelta = -1;
+                }
+                if (after <= 0) {
+                    mongoTemplate.remove(Query.query(Criteria.where("_id").is(membershipId).and("spendingCount").lte(0)),
+                            CohortMembershipEntity.class);
+                }
+                cohortKey = membership.getCohortKey();
+            } else {
+                // 같은 월 안에서 금액/카테고리만 바뀐 경우
+                cohortKey = existing == null ? null : existing.getCohortKey();
+            }
+
+            if (cohortKey == null) {
+                continue; // 프로필 정보가 없어 그룹에 속하지 않는 사용자
+            }
+
+            // 2. 그룹 문서의 카테고리별 총액/사용자 수 $inc
+            String[] parts = cohortKey.split("_", 2);
+            Update update = new Update()
+                    .setOnInsert("month", month)
+                    .setOnInsert("gender", parts[0])
+                    .setOnInsert("ageGroup", parts[1]);
+            boolean changed = false;
+            if (userCountDelta != 0) {
+                update.inc("userCount", userCountDelta);
+                changed = true;
+            }
+            for (SpendingDelta d : group) {
+                if (isBlank(d.category())) {
+                    continue;
+                }
+                if (d.amount().signum() != 0) {
+                    // 카테고리명에 '.', '$' 가 있어도 하위 경로/연산자로 해석되지 않도록 인코딩
+                    update.inc("categoryTotalSpending." + MongoKeyUtil.encode(d.category()), d.amount());
+                    changed = true;
+                }
+
+                // 사용자의 카테고리 합계가 속한 버킷을 이전 값 → 새 값으로 이동
+                SpendingRollupEntity rollup = rollups.get(SpendingRollupEntity.toId(userId, month, d.category()));
+                long newCount = rollup == null ? 0 : rollup.getCount();
+                BigDecimal newTotal = rollup == null || rollup.getTotal() == null ? BigDecimal.ZERO : rollup.getTotal();
+                Integer oldBucket = newCount - d.countDelta() > 0 ? SpendingHistogram.bucketOf(newTotal.subtract(d.amount())) : null;
+                Integer newBucket = newCount > 0 ? SpendingHistogram.bucketOf(newTotal) : null;
+                if (!Objects.equals(oldBucket, newBucket)) {
+                    String path = "categoryHistogram." + MongoKeyUtil.encode(d.category()) + ".";
+                    if (oldBucket != null) {
+                        update.inc(path + oldBucket, -1);
+                    }
+                    if (newBucket != null) {
+                        update.inc(path + newBucket, 1);
+                    }
+                    changed = true;
+                }
+            }
+            if (changed) {
+                bulk.upsert(Query.query(Criteria.where("_id").is(month + "_" + cohortKey)), update);
+                hasUpdates = true;
+            }
+        }
+
+        if (hasUpdates) {
+            bulk.execute();
+        }
+    }
+
+    /**
+     * 또래 그룹의 카테고리별 평균/분위수(p25, p50, p75, p90)와 요청 사용자의 백분위를 조회합니다.
+     * @return 그룹 데이터가 없으면 null
+     */
+    @Override
+    public CohortComparisonDTO compareWithGroup(String userId, String gender, String ageGroup) throws Exception {
+        AggregatedSpendingEntity entity = getAggregatedSpendingByGroup(gender, ageGroup);
+        if (entity == null) {
+            return null;
+        }
+
+        Map<String, BigDecimal> myTotals = userId == null
+                ? Map.of()
+                : spendingRollupService.getCategoryTotals(userId, entity.getMonth());
+
+        Map<String, CohortComparisonDTO.CategoryDistribution> distribution = new HashMap<>();
+        // 저장된 키는 인코딩된 카테고리명이므로 원래 이름으로 복원하여 사용자 합계와 맞춤
+        Map<String, Map<String, Long>> histograms = Optional.ofNullable(MongoKeyUtil.decodeKeys(entity.getCategoryHistogram())).orElse(Map.of());
+        histograms.forEach((category, histogram) -> {
+            BigDecimal p50 = SpendingHistogram.quantile(histogram, 0.5);
+            if (p50 == null) {
+                return; // 해당 카테고리에 지출한 사용자가 없음
+            }
+            BigDecimal myAmount = myTotals.getOrDefault(category, BigDecimal.ZERO);
+            distribution.put(category, new CohortComparisonDTO.CategoryDistribution(
+                    SpendingHistogram.quantile(histogram, 0.25),
+                    p50,
+                    SpendingHistogram.quantile(histogram, 0.75),
+                    SpendingHistogram.quantile(histogram, 0.9),
+                    myAmount,
+                    myAmount.signum() > 0 ? SpendingHistogram.percentileRank(histogram, myAmount) : null));
+        });
+
+        return new CohortComparisonDTO(entity.getId(), entity.getMonth(), entity.getGender(), entity.getAgeGroup(),
+                entity.getUserCount(), entity.getCategoryAverageSpending(), distribution);
+    }
+
+    private static boolean isBlank(String category) {
+        return category == null || category.isBlank();
+    }
+
     /**
      * 특정 월, 성별, 연령대에 해당하는 집계된 소비 데이터를 조회합니다.
      * @param gender 조회할 성별
@@ -194,6 +474,21 @@ public class AggregatedSpendingServiceImpl implements IAggregatedSpendingService
 
         if (rEntity.isPresent()) {
             log.info("SUCCESS: Found aggregated data with ID: {}", rEntity.get().getId());
+            AggregatedSpendingEntity entity = rEntity.get();
+            if (entity.getUserCount() <= 0) {
+                log.warn("WARN: Aggregated data {} has no users with spending.", id);
+                return null;
+            }
+            // 카테고리별 총액은 지출 저장 시마다 증분 갱신되므로, 평균은 조회 시점의 총액/사용자 수로 계산
+            // 저장된 키는 인코딩된 카테고리명이므로 원래 이름으로 복원
+            if (entity.getCategoryTotalSpending() != null) {
+                Map<String, BigDecimal> categoryTotalSpending = MongoKeyUtil.decodeKeys(entity.getCategoryTotalSpending());
+                Map<String, BigDecimal> categoryAverageSpending = new HashMap<>();
+                categoryTotalSpending.forEach((category, totalAmount) -> categoryAverageSpending.put(category,
+                        totalAmount.divide(BigDecimal.valueOf(entity.getUserCount()), 2, RoundingMode.HALF_UP)));
+                entity.setCategoryTotalSpending(categoryTotalSpending);
+                entity.setCategoryAverageSpending(categoryAverageSpending);
+            }
         } else {
             log.warn("WARN: Aggregated data not found for ID: {}", id);
         }
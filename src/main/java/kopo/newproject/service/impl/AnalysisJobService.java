@@ -0,0 +1,342 @@
+package kopo.newproject.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import kopo.newproject.repository.entity.mongo.AnalysisJobEntity;
+import kopo.newproject.repository.mongo.AnalysisJobRepository;
+import kopo.newproject.service.IAIAnalysisService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+
+/**
+ * AI 분석을 요청 스레드와 분리하여 제한된 크기의 작업 풀에서 실행하는 서비스
+ * 작업 상태는 AI_analysis_job 컬렉션에 저장되어 재시도/재기동 후에도 이어서 처리됩니다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AnalysisJobService {
+
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long RETRY_BACKOFF_MS = 2000;
+    private static final long SSE_TIMEOUT_MS = 120_000;
+
+    private final AnalysisJobRepository analysisJobRepository;
+    private final IAIAnalysisService aiAnalysisService;
+    private final ObjectMapper objectMapper;
+    private final AnalysisRateLimiter analysisRateLimiter;
+
+    // 동시에 실행할 분석 작업 수
+    @Value("${analysis.job.parallelism:4}")
+    private int parallelism;
+
+    // 실행 대기열 크기 (가득 차면 요청 거절)
+    @Value("${analysis.job.queue-capacity:100}")
+    private int queueCapacity;
+
+    private ThreadPoolExecutor jobExecutor;
+
+    // 재시도 대기(backoff)용 - 대기하는 동안 작업 스레드를 점유하지 않음
+    private ScheduledExecutorService retryScheduler;
+
+    // 작업 ID → 완료 이벤트를 기다리는 SSE 연결
+    private final Map<String, List<SseEmitter>> emitters = new ConcurrentHashMap<>();
+
+    // 이 인스턴스에서 AnalysisRateLimiter 예약을 잡고 등록한 작업 ID (재기동 후 재등록된 작업은 예약이 없으므로 해제하지 않음)
+    private final Set<String> reservedJobs = ConcurrentHashMap.newKeySet();
+
+    // 작업 ID → 지금까지 생성된 응답 토큰과 토큰을 받을 SSE 연결
+    private final Map<String, TokenStream> tokenStreams = new ConcurrentHashMap<>();
+
+    /**
+     * 작업 1건의 토큰 중계
+     * 늦게 연결한 클라이언트도 지금까지의 내용을 받을 수 있도록 생성된 내용을 함께 보관합니다.
+     * 토큰 추가와 연결 등록은 같은 락 안에서 하므로 토큰이 빠지거나 중복되지 않습니다.
+     */
+    private static class TokenStream {
+        private final StringBuilder content = new StringBuilder();
+        private final List<SseEmitter> emitters = new ArrayList<>();
+
+        synchronized void add(SseEmitter emitter, ObjectMapper objectMapper) {
+            if (content.length() > 0 && !send(emitter, "token", content.toString(), objectMapper)) {
+                return;
+            }
+            emitters.add(emitter);
+        }
+
+        synchronized void remove(SseEmitter emitter) {
+            emitters.remove(emitter);
+        }
+
+        synchronized void publish(String token, ObjectMapper objectMapper) {
+            content.append(token);
+            emitters.removeIf(emitter -> !send(emitter, "token", token, objectMapper));
+        }
+
+        // 재시도로 처음부터 다시 생성하는 경우
+        synchronized void reset(ObjectMapper objectMapper) {
+            content.setLength(0);
+            emitters.removeIf(emitter -> !send(emitter, "reset", "", objectMapper));
+        }
+
+        // 문자열 data 는 그대로 기록되므로 직접 JSON 문자열로 인코딩 (앞뒤 공백, 줄바꿈, 따옴표 보존)
+        private static boolean send(SseEmitter emitter, String name, String data, ObjectMapper objectMapper) {
+            try {
+                emitter.send(SseEmitter.event().name(name).data(objectMapper.writeValueAsString(data)));
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                return false; // 클라이언트가 연결을 끊은 경우
+            }
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        jobExecutor = new ThreadPoolExecutor(parallelism, parallelism, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity));
+        retryScheduler = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // 재시도 대기 중인 작업은 QUEUED 로 남아 재기동 시 다시 등록됨
+        retryScheduler.shutdownNow();
+        jobExecutor.shutdown();
+    }
+
+    /**
+     * 분석 작업을 저장하고 실행 대기열에 등록합니다.
+     * AnalysisRateLimiter 에서 허용된 요청이어야 하며, 예약은 작업이 끝날 때(finish) 해제됩니다.
+     *
+     * @throws RejectedExecutionException 대기열이 가득 찬 경우
+     */
+    public AnalysisJobEntity submit(String userId, String yearMonth, boolean force) {
+        LocalDateTime now = LocalDateTime.now();
+        AnalysisJobEntity job;
+        try {
+            job = analysisJobRepository.save(AnalysisJobEntity.builder()
+                    .userId(userId)
+                    .month(yearMonth)
+                    .force(force)
+                    .status(AnalysisJobEntity.Status.QUEUED)
+                    .attempts(0)
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .build());
+        } catch (RuntimeException e) {
+            analysisRateLimiter.release(userId);
+            throw e;
+        }
+        reservedJobs.add(job.getId());
+
+        try {
+            jobExecutor.execute(() -> run(job.getId()));
+        } catch (RejectedExecutionException e) {
+            finish(job, AnalysisJobEntity.Status.FAILED, null, "분석 요청이 많아 잠시 후 다시 시도해주세요.");
+            throw e;
+        }
+        log.info("AI 분석 작업 등록 (jobId: {}, userId: {}, month: {})", job.getId(), userId, yearMonth);
+        return job;
+    }
+
+    public AnalysisJobEntity getJob(String userId, String jobId) {
+        return analysisJobRepository.findByIdAndUserId(jobId, userId).orElse(null);
+    }
+
+    /**
+     * 작업 완료 이벤트("complete")를 받을 SSE 연결을 생성합니다.
+     * 이미 끝난 작업이면 결과를 바로 보내고 연결을 닫습니다.
+     */
+    public SseEmitter subscribe(AnalysisJobEntity job) {
+        SseEmitter emitter = new SseEmitter(SSE_TIMEOUT_MS);
+        if (job.isFinished()) {
+            sendAndComplete(emitter, job);
+            return emitter;
+        }
+
+        List<SseEmitter> jobEmitters = emitters.computeIfAbsent(job.getId(), k -> new CopyOnWriteArrayList<>());
+        jobEmitters.add(emitter);
+        Runnable remove = () -> jobEmitters.remove(emitter);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(e -> remove.run());
+
+        // 등록하는 사이에 작업이 끝났을 수 있으므로 한 번 더 확인
+        analysisJobRepository.findById(job.getId())
+                .filter(AnalysisJobEntity::isFinished)
+                .ifPresent(this::notifyCompletion);
+        return emitter;
+    }
+
+    /**
+     * 실행 중인 작업의 GPT 응답 토큰("token")과 완료 이벤트("complete")를 받을 SSE 연결을 생성합니다.
+     * 연결 시점까지 생성된 내용을 먼저 한 번에 보내고, 재시도로 처음부터 다시 생성되면 "reset" 을 보냅니다.
+     * 작업 실행/저장/재시도는 작업 등록(submit) 경로와 같으며, 이 연결은 진행 상황을 읽기만 합니다.
+     */
+    public SseEmitter subscribeTokens(AnalysisJobEntity job) {
+        SseEmitter emitter = subscribe(job);
+        if (job.isFinished()) {
+            return emitter;
+        }
+
+        TokenStream tokenStream = tokenStreams.computeIfAbsent(job.getId(), k -> new TokenStream());
+        tokenStream.add(emitter, objectMapper);
+        emitter.onCompletion(() -> tokenStream.remove(emitter));
+        emitter.onTimeout(() -> tokenStream.remove(emitter));
+
+        // 등록하는 사이에 작업이 끝났으면 complete 는 subscribe 에서 이미 전송됨
+        if (analysisJobRepository.findById(job.getId()).filter(AnalysisJobEntity::isFinished).isPresent()) {
+            tokenStreams.remove(job.getId());
+        }
+        return emitter;
+    }
+
+    /**
+     * 재기동 시 완료되지 않은 작업(QUEUED, 중단된 RUNNING)을 다시 대기열에 등록합니다.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumePendingJobs() {
+        List<AnalysisJobEntity> pending = analysisJobRepository.findByStatusInOrderByCreatedAtAsc(
+                List.of(AnalysisJobEntity.Status.QUEUED, AnalysisJobEntity.Status.RUNNING));
+        for (AnalysisJobEntity job : pending) {
+            try {
+                jobExecutor.execute(() -> run(job.getId()));
+            } catch (RejectedExecutionException e) {
+                finish(job, AnalysisJobEntity.Status.FAILED, null, "재기동 후 작업을 다시 등록하지 못했습니다.");
+            }
+        }
+        if (!pending.isEmpty()) {
+            log.info("미완료 AI 분석 작업 {}건 재등록", pending.size());
+        }
+    }
+
+    /**
+     * 작업을 한 번 시도합니다. 일시적인 오류로 실패하면 backoff 후 다시 대기열에 등록하고,
+     * 그 외의 오류이거나 최대 시도 횟수에 도달하면 FAILED 로 종료합니다.
+     */
+    private void run(String jobId) {
+        AnalysisJobEntity job = analysisJobRepository.findById(jobId).orElse(null);
+        if (job == null || job.isFinished()) {
+            return;
+        }
+
+        job.setStatus(AnalysisJobEntity.Status.RUNNING);
+        job.setAttempts(job.getAttempts() + 1);
+        job.setUpdatedAt(LocalDateTime.now());
+        job = analysisJobRepository.save(job);
+
+        // 응답 토큰은 /jobs/{jobId}/stream 구독자에게 도착 즉시 전달
+        TokenStream tokenStream = tokenStreams.computeIfAbsent(jobId, k -> new TokenStream());
+        if (job.getAttempts() > 1) {
+            tokenStream.reset(objectMapper);
+        }
+        try {
+            String result = aiAnalysisService.analyzeStreaming(job.getUserId(), job.getMonth(), job.isForce(),
+                    token -> tokenStream.publish(token, objectMapper));
+            finish(job, AnalysisJobEntity.Status.SUCCEEDED, result, null);
+            log.info("AI 분석 작업 완료 (jobId: {}, 시도 {}회)", jobId, job.getAttempts());
+        } catch (Exception e) {
+            boolean retryable = isTransient(e);
+            log.warn("AI 분석 작업 실패 (jobId: {}, 시도 {}회, 재시도 대상: {}): {}", jobId, job.getAttempts(), retryable, e.getMessage());
+            if (retryable && job.getAttempts() < MAX_ATTEMPTS) {
+                scheduleRetry(job, e.getMessage());
+                return;
+            }
+            finish(job, AnalysisJobEntity.Status.FAILED, null, e.getMessage());
+            log.error("AI 분석 작업 최종 실패 (jobId: {}): {}", jobId, e.getMessage());
+        }
+    }
+
+    private void scheduleRetry(AnalysisJobEntity job, String error) {
+        job.setStatus(AnalysisJobEntity.Status.QUEUED);
+        job.setError(error);
+        job.setUpdatedAt(LocalDateTime.now());
+        AnalysisJobEntity queued = analysisJobRepository.save(job);
+        try {
+            retryScheduler.schedule(() -> resubmit(queued), RETRY_BACKOFF_MS * queued.getAttempts(), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // 종료 중 - QUEUED 상태이므로 재기동 시 resumePendingJobs 에서 다시 등록
+            log.info("종료 중이라 AI 분석 작업 재시도를 재기동 이후로 미룸 (jobId: {})", queued.getId());
+        }
+    }
+
+    private void resubmit(AnalysisJobEntity job) {
+        try {
+            jobExecutor.execute(() -> run(job.getId()));
+        } catch (RejectedExecutionException e) {
+            if (!jobExecutor.isShutdown()) {
+                finish(job, AnalysisJobEntity.Status.FAILED, null, "분석 요청이 많아 잠시 후 다시 시도해주세요.");
+            }
+        }
+    }
+
+    /**
+     * 네트워크 오류/타임아웃과 OpenAI 의 5xx, 429 응답만 일시적인 오류로 봅니다.
+     * 잘못된 입력, 그 밖의 4xx, 응답 파싱 실패는 다시 시도해도 결과가 같으므로 재시도하지 않습니다.
+     */
+    private static boolean isTransient(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause() == t ? null : t.getCause()) {
+            if (t instanceof HttpServerErrorException || t instanceof HttpClientErrorException.TooManyRequests
+                    || t instanceof ResourceAccessException) {
+                return true;
+            }
+            if (t instanceof HttpClientErrorException || t instanceof JsonProcessingException) {
+                return false;
+            }
+            if (t instanceof IOException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void finish(AnalysisJobEntity job, AnalysisJobEntity.Status status, String result, String error) {
+        LocalDateTime now = LocalDateTime.now();
+        job.setStatus(status);
+        job.setResult(result);
+        job.setError(error);
+        job.setUpdatedAt(now);
+        job.setFinishedAt(now);
+        analysisJobRepository.save(job);
+        if (reservedJobs.remove(job.getId())) {
+            analysisRateLimiter.release(job.getUserId());
+        }
+        notifyCompletion(job);
+    }
+
+    private void notifyCompletion(AnalysisJobEntity job) {
+        tokenStreams.remove(job.getId());
+        List<SseEmitter> jobEmitters = emitters.remove(job.getId());
+        if (jobEmitters != null) {
+            jobEmitters.forEach(emitter -> sendAndComplete(emitter, job));
+        }
+    }
+
+    private void sendAndComplete(SseEmitter emitter, AnalysisJobEntity job) {
+        try {
+            emitter.send(SseEmitter.event().name("complete").data(job));
+            emitter.complete();
+        } catch (IOException | IllegalStateException e) {
+            // 클라이언트가 이미 연결을 끊은 경우
+            emitter.completeWithError(e);
+        }
+    }
+}
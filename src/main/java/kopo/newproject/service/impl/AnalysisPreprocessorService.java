@@ -29,14 +29,22 @@ public class AnalysisPreprocessorService {
 
     public Map<String, Object> generateAnalysisInput(String userId, YearMonth yearMonth) {
         LocalDate from = yearMonth.atDay(1);
-        LocalDate to = yearMonth.atEndOfMonth();
+        LocalDate to = yearMonth.plusMonths(1).atDay(1);
 
-        // 📦 1. 소비 데이터 조회
-        List<SpendingEntity> spendings = spendingRepo.findByUserIdAndDateBetween(userId, from, to);
+        // 📦 1. 소비 데이터 조회 (월 첫날/말일 포함)
+        List<SpendingEntity> spendings = spendingRepo.findByUserIdAndDateRange(userId, from, to);
 
         // 📦 2. 예산 데이터 조회 (변경된 메서드 사용)
         List<BudgetEntity> budgets = budgetRepo.findAllByUserIdAndYearAndMonth(userId, yearMonth.getYear(), yearMonth.getMonthValue());
 
+        // 조회 순서는 보장되지 않으므로 정렬 (설명 요약/초과 카테고리 순서가 같아야 같은 입력으로 보고 기존 분석을 재사용할 수 있음)
+        spendings = new ArrayList<>(spendings);
+        spendings.sort(Comparator.comparing(SpendingEntity::getDate, Comparator.nullsLast(Comparator.naturalOrder()))
+                .thenComparing(SpendingEntity::getId, Comparator.nullsLast(Comparator.naturalOrder())));
+        budgets = new ArrayList<>(budgets);
+        budgets.sort(Comparator.comparing(BudgetEntity::getCategory, Comparator.nullsLast(Comparator.naturalOrder()))
+                .thenComparing(BudgetEntity::getBudgetId, Comparator.nullsLast(Comparator.naturalOrder())));
+
         // 📊 3. 소비 데이터 전처리
         Map<String, BigDecimal> spendingByCategory = new HashMap<>();
         Map<String, List<String>> descriptionByCategory = new HashMap<>();
@@ -54,7 +62,7 @@ public class AnalysisPreprocessorService {
                     .add(Optional.ofNullable(s.getDescription()).orElse("기재 없음"));
         }
 
-        // 📈 4. 예산과 비교 데이터 구성
+        // 📈 4. 예산과 비교 데이터 구성 (사용액은 위에서 집계한 카테고리별 지출과 같은 데이터에서 계산)
         Map<String, BigDecimal> budgetByCategory = new HashMap<>();
         Map<String, Map<String, Object>> budgetVsSpending = new HashMap<>();
         List<String> overBudgetCategories = new ArrayList<>();
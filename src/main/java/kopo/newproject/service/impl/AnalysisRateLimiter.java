@@ -0,0 +1,181 @@
+package kopo.newproject.service.impl;
+
+import jakarta.annotation.PostConstruct;
+import kopo.newproject.repository.mongo.AIAnalysisRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * AI 분석 요청 제한
+ * - 사용자별 토큰 버킷으로 짧은 시간 동안의 연속 요청을 제한
+ * - 사용자별 월간 분석 횟수(OpenAI 호출 횟수) 제한
+ * 상태는 메모리에만 두고, 사용자 단위 갱신은 사용자 ID 로 고른 스트라이프 락 안에서 처리합니다.
+ * 월간 사용량은 사용자별로 처음 한 번만 DB 에서 읽고(락 밖에서) 이후에는 분석 결과 저장 시마다 메모리에서 증가시킵니다.
+ * 허용된 요청은 끝날 때까지 한도 1회를 예약하므로, 동시에 들어온 요청들이 함께 한도를 넘길 수 없습니다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AnalysisRateLimiter {
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final AIAnalysisRepository aiAnalysisRepository;
+
+    // 버킷 최대 토큰 수 (연속으로 보낼 수 있는 요청 수)
+    @Value("${analysis.rate.capacity:3}")
+    private int capacity;
+
+    // 토큰 1개가 다시 채워지는 시간(초)
+    @Value("${analysis.rate.refill-seconds:60}")
+    private long refillSeconds;
+
+    // 사용자별 월간 최대 분석 횟수
+    @Value("${analysis.quota.monthly:30}")
+    private int monthlyQuota;
+
+    private final Object[] locks = new Object[LOCK_STRIPES];
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final Map<String, MonthlyUsage> usages = new ConcurrentHashMap<>();
+
+    /**
+     * 요청 허용 여부
+     *
+     * @param retryAfterSeconds 거절된 경우 다시 시도할 수 있을 때까지의 시간(초)
+     */
+    public record Decision(boolean allowed, long retryAfterSeconds, String message) {
+
+        static final Decision ALLOWED = new Decision(true, 0, null);
+    }
+
+    private static class Bucket {
+        double tokens;
+        long lastRefillNanos;
+    }
+
+    private static class MonthlyUsage {
+        YearMonth month;
+        int count;    // 저장된 분석 결과 수
+        int reserved; // 허용되었지만 아직 끝나지 않은 요청 수
+    }
+
+    @PostConstruct
+    public void init() {
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * 월간 한도를 확인한 뒤 토큰을 하나 소비하고 한도 1회를 예약합니다.
+     * 허용된 경우 요청이 끝나면(성공, 캐시 결과 반환, 실패 모두) 반드시 release 를 호출해야 하며,
+     * 실제 사용량은 분석 결과가 저장될 때(recordUsage) 증가합니다.
+     */
+    public Decision tryAcquire(String userId) {
+        YearMonth currentMonth = YearMonth.now();
+        MonthlyUsage usage = usageOf(userId, currentMonth);
+        synchronized (lockFor(userId)) {
+            if (usage.count + usage.reserved >= monthlyQuota) {
+                long untilNextMonth = Duration.between(LocalDateTime.now(),
+                        currentMonth.plusMonths(1).atDay(1).atStartOfDay()).toSeconds();
+                return new Decision(false, Math.max(1, untilNextMonth),
+                        "이번 달 AI 분석 가능 횟수(" + monthlyQuota + "회)를 모두 사용했습니다.");
+            }
+
+            Bucket bucket = buckets.computeIfAbsent(userId, k -> {
+                Bucket b = new Bucket();
+                b.tokens = capacity;
+                b.lastRefillNanos = System.nanoTime();
+                return b;
+            });
+            refill(bucket);
+            if (bucket.tokens < 1) {
+                long waitSeconds = (long) Math.ceil((1 - bucket.tokens) * refillSeconds);
+                return new Decision(false, Math.max(1, waitSeconds), "분석 요청이 너무 잦습니다. 잠시 후 다시 시도해주세요.");
+            }
+            bucket.tokens -= 1;
+            usage.reserved++;
+            return Decision.ALLOWED;
+        }
+    }
+
+    /**
+     * tryAcquire 로 허용된 요청이 끝났을 때 예약을 해제합니다.
+     * OpenAI 를 호출했다면 그 전에 recordUsage 로 사용량이 반영되어 있습니다.
+     */
+    public void release(String userId) {
+        MonthlyUsage usage = usages.get(userId);
+        if (usage == null) {
+            return; // 월이 바뀌어 정리되었거나 재기동 전에 예약된 요청
+        }
+        synchronized (lockFor(userId)) {
+            if (usage.reserved > 0) {
+                usage.reserved--;
+            }
+        }
+    }
+
+    /**
+     * OpenAI 호출로 새 분석 결과가 저장되었을 때 월간 사용량을 1 증가시킵니다.
+     */
+    public void recordUsage(String userId) {
+        MonthlyUsage usage = usageOf(userId, YearMonth.now());
+        synchronized (lockFor(userId)) {
+            usage.count++;
+        }
+    }
+
+    /**
+     * 다시 가득 찬 버킷(새 버킷과 같은 상태)과 지난 달 사용량을 정리합니다.
+     */
+    @Scheduled(fixedDelay = 600000, initialDelay = 600000)
+    public void evictIdle() {
+        YearMonth currentMonth = YearMonth.now();
+        buckets.forEach((userId, bucket) -> {
+            synchronized (lockFor(userId)) {
+                refill(bucket);
+                if (bucket.tokens >= capacity) {
+                    buckets.remove(userId, bucket);
+                }
+            }
+        });
+        usages.entrySet().removeIf(e -> !currentMonth.equals(e.getValue().month));
+    }
+
+    // DB 조회는 스트라이프 락 밖에서 하여 같은 스트라이프의 다른 사용자를 막지 않음
+    // 동시에 로드한 경우 먼저 등록된 값을 사용 (필드 갱신은 호출 측에서 스트라이프 락 안에서)
+    private MonthlyUsage usageOf(String userId, YearMonth month) {
+        MonthlyUsage usage = usages.get(userId);
+        if (usage != null && month.equals(usage.month)) {
+            return usage;
+        }
+        MonthlyUsage loaded = new MonthlyUsage();
+        loaded.month = month;
+        loaded.count = (int) aiAnalysisRepository.countByUserIdAndCreatedAtBetween(userId,
+                month.atDay(1).atStartOfDay(), month.plusMonths(1).atDay(1).atStartOfDay());
+        log.debug("AI 분석 월간 사용량 로드 (userId: {}, month: {}, count: {})", userId, month, loaded.count);
+        return usages.compute(userId, (k, current) -> current != null && month.equals(current.month) ? current : loaded);
+    }
+
+    private void refill(Bucket bucket) {
+        long now = System.nanoTime();
+        double refilled = (now - bucket.lastRefillNanos) / (refillSeconds * 1_000_000_000.0);
+        if (refilled > 0) {
+            bucket.tokens = Math.min(capacity, bucket.tokens + refilled);
+            bucket.lastRefillNanos = now;
+        }
+    }
+
+    private Object lockFor(String userId) {
+        return locks[Math.floorMod(userId.hashCode(), LOCK_STRIPES)];
+    }
+}
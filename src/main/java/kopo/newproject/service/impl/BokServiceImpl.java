@@ -1,22 +1,31 @@
 
 package kopo.newproject.service.impl;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import kopo.newproject.feignClient.BokApiClient;
 import kopo.newproject.dto.BokApiResponse;
 import kopo.newproject.dto.StatisticRow;
+import kopo.newproject.repository.entity.jpa.CpiIndexEntity;
+import kopo.newproject.repository.jpa.CpiIndexRepository;
 import kopo.newproject.service.IBokService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Slf4j
 @RequiredArgsConstructor
@@ -24,6 +33,7 @@ import java.util.List;
 public class BokServiceImpl implements IBokService {
 
     private final BokApiClient bokApiClient;
+    private final CpiIndexRepository cpiIndexRepository;
 
     @Value("${bok.api.key}")
     private String apiKey;
@@ -34,6 +44,61 @@ public class BokServiceImpl implements IBokService {
     private static final int START_COUNT = 1;
     private static final int END_COUNT = 100; // 최대 100개까지 조회
     private static final String PERIOD = "M"; // 월별 데이터
+    private static final int SERIES_MONTHS = 12; // 등락률 계산에 사용하는 기간 (현재 월 포함)
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyyMM");
+
+    // 마지막 조회 후 이 시간이 지나면 백그라운드에서 다시 조회 (그동안은 기존 값 사용)
+    @Value("${bok.cpi.cache-ttl-hours:12}")
+    private long cacheTtlHours;
+
+    // 조회 실패 후 다시 시도하기까지의 최소 간격
+    @Value("${bok.cpi.retry-interval-minutes:10}")
+    private long retryIntervalMinutes;
+
+    // 저장된 값이 전혀 없을 때 진행 중인 갱신을 기다리는 최대 시간
+    @Value("${bok.cpi.cold-start-wait-seconds:15}")
+    private long coldStartWaitSeconds;
+
+    /**
+     * 메모리에 보관하는 CPI 시계열 (최신순)
+     */
+    private record CpiSeries(List<StatisticRow> rows, LocalDateTime fetchedAt) {
+    }
+
+    private volatile CpiSeries cachedSeries;
+    private volatile LocalDateTime lastRefreshAttemptAt;
+    // 진행 중인 갱신 (없으면 null), 동시에 요청한 호출은 같은 갱신을 공유
+    private final AtomicReference<CompletableFuture<Void>> inFlightRefresh = new AtomicReference<>();
+    private ExecutorService refreshExecutor;
+
+    @PostConstruct
+    public void init() {
+        refreshExecutor = Executors.newSingleThreadExecutor();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdown();
+    }
+
+    /**
+     * 기동 시 저장된 CPI 스냅샷을 읽어오고, 오래되었으면 백그라운드에서 갱신합니다.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadCpiSnapshot() {
+        cachedSeries = loadSeriesFromDb();
+        if (cachedSeries == null || isStale(cachedSeries)) {
+            refreshAsync();
+        }
+    }
+
+    /**
+     * CPI 는 한 달에 한 번 발표되므로 6시간마다 확인하는 것으로 충분합니다.
+     */
+    @Scheduled(cron = "0 0 */6 * * ?")
+    public void scheduledRefresh() {
+        startRefresh().join();
+    }
 
     @Override
     public List<StatisticRow> getCpiData(String startDate, String endDate) {
@@ -60,16 +125,8 @@ public class BokServiceImpl implements IBokService {
     public double getLatestCpiGrowthRate() {
         log.info("Calculating latest CPI growth rate...");
 
-        // 1. 조회 기간 설정 (최근 12개월)
-        YearMonth currentMonth = YearMonth.now();
-        YearMonth twelveMonthsAgo = currentMonth.minusMonths(11); // 현재 월 포함 12개월 전
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyyMM");
-
-        String endDate = currentMonth.format(formatter);
-        String startDate = twelveMonthsAgo.format(formatter);
-
-        // 2. CPI 데이터 조회 (최근 12개월)
-        List<StatisticRow> cpiData = getCpiData(startDate, endDate);
+        // 1~2. CPI 데이터 조회 (최근 12개월, 캐시/저장된 스냅샷 사용)
+        List<StatisticRow> cpiData = getCpiSeries();
 
         // 3. 데이터 검증 및 등락률 계산
         if (cpiData == null || cpiData.size() < 2) {
@@ -119,4 +176,142 @@ public class BokServiceImpl implements IBokService {
             return 0.0;
         }
     }
+
+    /**
+     * 캐시된 CPI 시계열을 반환합니다. 외부 API 는 요청 경로에서 호출하지 않고,
+     * 캐시가 오래되었으면 기존 값을 그대로 반환하면서 백그라운드 갱신만 요청합니다.
+     * 저장된 값이 전혀 없을 때만 갱신이 끝나기를 기다리며, 이미 진행 중인 갱신(기동 시 갱신 등)이 있으면 새로 조회하지 않고 그 결과를 기다립니다.
+     */
+    private List<StatisticRow> getCpiSeries() {
+        CpiSeries series = cachedSeries;
+        if (series == null) {
+            series = loadSeriesFromDb();
+            if (series == null) {
+                awaitRefresh(startRefresh());
+                series = cachedSeries;
+            } else {
+                cachedSeries = series;
+            }
+        }
+        if (series == null) {
+            return Collections.emptyList();
+        }
+        if (isStale(series)) {
+            refreshAsync();
+        }
+        return series.rows();
+    }
+
+    private boolean isStale(CpiSeries series) {
+        return series.fetchedAt().isBefore(LocalDateTime.now().minusHours(cacheTtlHours));
+    }
+
+    private void refreshAsync() {
+        LocalDateTime lastAttempt = lastRefreshAttemptAt;
+        if (lastAttempt != null && Duration.between(lastAttempt, LocalDateTime.now()).toMinutes() < retryIntervalMinutes) {
+            return;
+        }
+        startRefresh();
+    }
+
+    /**
+     * 진행 중인 갱신이 있으면 그 작업을, 없으면 백그라운드에서 새로 시작한 갱신 작업을 반환합니다.
+     * 반환된 작업은 갱신 성공 여부와 관계없이 정상 완료되며, 완료 시점에는 cachedSeries 에 결과가 반영되어 있습니다.
+     */
+    private CompletableFuture<Void> startRefresh() {
+        CompletableFuture<Void> refresh = new CompletableFuture<>();
+        CompletableFuture<Void> existing = inFlightRefresh.compareAndExchange(null, refresh);
+        if (existing != null) {
+            return existing;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    refreshCpiSeries();
+                } finally {
+                    inFlightRefresh.set(null);
+                    refresh.complete(null);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // 종료 중인 경우
+            inFlightRefresh.set(null);
+            refresh.complete(null);
+        }
+        return refresh;
+    }
+
+    private void awaitRefresh(CompletableFuture<Void> refresh) {
+        try {
+            refresh.get(coldStartWaitSeconds, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            log.warn("CPI 최초 조회가 {}초 안에 끝나지 않았습니다. 이번 요청은 CPI 없이 처리합니다.", coldStartWaitSeconds);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.error("CPI 최초 조회 대기 중 오류", e.getCause());
+        }
+    }
+
+    /**
+     * ECOS 에서 최근 CPI 를 받아 DB 스냅샷과 캐시를 갱신합니다.
+     * 조회에 실패하면 마지막으로 받은 값을 그대로 유지합니다. 동시에 한 건만 실행되도록 startRefresh 를 통해서만 호출합니다.
+     */
+    private void refreshCpiSeries() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            lastRefreshAttemptAt = now;
+
+            YearMonth currentMonth = YearMonth.now();
+            List<StatisticRow> rows = getCpiData(
+                    currentMonth.minusMonths(SERIES_MONTHS - 1).format(TIME_FORMAT), currentMonth.format(TIME_FORMAT));
+            if (rows.isEmpty()) {
+                log.warn("CPI 갱신 실패. 마지막으로 받은 값을 계속 사용합니다. (기준: {})",
+                        cachedSeries != null ? cachedSeries.fetchedAt() : "없음");
+                return;
+            }
+
+            List<CpiIndexEntity> entities = new ArrayList<>();
+            for (StatisticRow row : rows) {
+                try {
+                    entities.add(CpiIndexEntity.builder()
+                            .time(row.getTime())
+                            .dataValue(new BigDecimal(row.getDataValue()))
+                            .fetchedAt(now)
+                            .build());
+                } catch (NumberFormatException | NullPointerException e) {
+                    log.warn("CPI 값 형식 오류로 제외 (time: {}, value: {})", row.getTime(), row.getDataValue());
+                }
+            }
+            cpiIndexRepository.saveAll(entities);
+            cachedSeries = new CpiSeries(List.copyOf(rows), now);
+            log.info("CPI 시계열 갱신 완료 ({}건, 최신 시점: {})", rows.size(), rows.get(0).getTime());
+        } catch (Exception e) {
+            log.error("CPI 갱신 중 오류. 마지막으로 받은 값을 계속 사용합니다.", e);
+        }
+    }
+
+    private CpiSeries loadSeriesFromDb() {
+        YearMonth currentMonth = YearMonth.now();
+        List<CpiIndexEntity> entities = cpiIndexRepository.findByTimeBetweenOrderByTimeDesc(
+                currentMonth.minusMonths(SERIES_MONTHS - 1).format(TIME_FORMAT), currentMonth.format(TIME_FORMAT));
+        if (entities.isEmpty()) {
+            return null;
+        }
+
+        List<StatisticRow> rows = new ArrayList<>();
+        LocalDateTime fetchedAt = null;
+        for (CpiIndexEntity entity : entities) {
+            StatisticRow row = new StatisticRow();
+            row.setStatCode(STAT_CODE);
+            row.setTime(entity.getTime());
+            row.setDataValue(entity.getDataValue().toPlainString());
+            rows.add(row);
+            if (fetchedAt == null || entity.getFetchedAt().isAfter(fetchedAt)) {
+                fetchedAt = entity.getFetchedAt();
+            }
+        }
+        log.info("저장된 CPI 스냅샷 로드 ({}건, 조회 시각: {})", rows.size(), fetchedAt);
+        return new CpiSeries(List.copyOf(rows), fetchedAt);
+    }
 }
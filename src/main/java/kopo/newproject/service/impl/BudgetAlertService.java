@@ -1,21 +1,26 @@
 package kopo.newproject.service.impl;
 
+import kopo.newproject.dto.BudgetAlertRunStatsDTO;
 import kopo.newproject.dto.MailDTO;
-import kopo.newproject.dto.SpendingTotalDTO;
-import kopo.newproject.dto.UserInfoDTO;
+import kopo.newproject.dto.NotificationCreatedEvent;
 import kopo.newproject.repository.entity.jpa.BudgetEntity;
 import kopo.newproject.repository.entity.jpa.BudgetAlertLogEntity;
 import kopo.newproject.repository.entity.jpa.NotificationEntity;
+import kopo.newproject.repository.entity.jpa.UserInfoEntity;
 import kopo.newproject.repository.jpa.BudgetRepository;
 import kopo.newproject.repository.jpa.BudgetAlertLogRepository;
 import kopo.newproject.repository.jpa.NotificationRepository; // NotificationRepository 임포트
-import kopo.newproject.repository.mongo.SpendingRepository;
+import kopo.newproject.repository.jpa.UserInfoRepository;
 import kopo.newproject.service.IMailService;
 import kopo.newproject.service.ISpendingService;
-import kopo.newproject.service.IUserInfoService;
 import lombok.RequiredArgsConstructor;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -24,7 +29,15 @@ import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.YearMonth;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -33,161 +46,270 @@ public class BudgetAlertService {
     private static final Logger log = LoggerFactory.getLogger(BudgetAlertService.class);
 
     private final BudgetRepository budgetRepository;
-    private final SpendingRepository spendingRepository;
     private final BudgetAlertLogRepository budgetAlertLogRepository;
     private final IMailService mailService;
-    private final IUserInfoService userInfoService; // 사용자 정보 서비스 추가
+    private final UserInfoRepository userInfoRepository; // 사용자 정보 일괄 조회
     private final ISpendingService spendingService; // 지출 서비스 추가
     private final NotificationRepository notificationRepository; // 알림 레포지토리 추가
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher; // 저장된 알림을 SSE 채널에 전달
+
+    // 동시에 처리할 파티션 수
+    @Value("${budget.alert.parallelism:4}")
+    private int parallelism;
+
+    // 파티션 하나에 포함할 사용자 수
+    @Value("${budget.alert.partition-size:500}")
+    private int partitionSize;
+
+    private ExecutorService partitionExecutor;
+
+    // 스케줄러와 테스트 API 가 동시에 실행되지 않도록 방지
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    private final AtomicReference<BudgetAlertRunStatsDTO> lastRunStats = new AtomicReference<>();
+
+    // 알림 발송 대상 (사용자 + 예산 + 예측 지출액)
+    private record PendingAlert(UserInfoEntity user, BudgetEntity budget, BigDecimal estimatedSpending, double threshold) {
+    }
+
+    @PostConstruct
+    public void init() {
+        partitionExecutor = Executors.newFixedThreadPool(Math.max(1, parallelism));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        partitionExecutor.shutdown();
+    }
+
+    // 가장 최근 실행 통계 (실행 이력이 없으면 null)
+    public BudgetAlertRunStatsDTO getLastRunStats() {
+        return lastRunStats.get();
+    }
 
     // 매일 새벽 4시에 실행
     @Scheduled(cron = "0 15 00  * * ?")
     public void checkBudgetAndSendAlerts() {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("예산 초과 예측 알림 스케줄러가 이미 실행 중이어서 건너뜀");
+            return;
+        }
+        try {
+            runAlerts();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private void runAlerts() {
         log.info("예산 초과 예측 알림 스케줄러 시작");
+        LocalDateTime startedAt = LocalDateTime.now();
+        long startTime = System.currentTimeMillis();
 
         LocalDate today = LocalDate.now();
         YearMonth currentYearMonth = YearMonth.from(today);
-        int year = currentYearMonth.getYear();
-        int month = currentYearMonth.getMonthValue();
-        int daysInMonth = currentYearMonth.lengthOfMonth();
-        int dayOfMonth = today.getDayOfMonth();
 
-        // 모든 예산 정보를 가져옴
-        List<BudgetEntity> budgets = budgetRepository.findAll();
+        // 이번 달 예산만 조회하여 사용자별로 묶음
+        Map<String, List<BudgetEntity>> budgetsByUser = budgetRepository
+                .findAllByYearAndMonth(currentYearMonth.getYear(), currentYearMonth.getMonthValue()).stream()
+                .collect(Collectors.groupingBy(BudgetEntity::getUserId));
+        int budgetCount = budgetsByUser.values().stream().mapToInt(List::size).sum();
 
-        for (BudgetEntity budget : budgets) {
-            // 이번 달 예산만 대상으로 함
-            if (budget.getYear() != year || budget.getMonth() != month) {
-                continue;
-            }
-
-            String userId = budget.getUserId();
-            String category = budget.getCategory();
+        // ✅ 사용자 집합을 파티션으로 나누어 병렬 처리 (파티션마다 사용자/기록/지출 합계를 한 번씩 조회)
+        List<String> userIds = new ArrayList<>(budgetsByUser.keySet());
+        int size = Math.max(1, partitionSize);
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (int from = 0; from < userIds.size(); from += size) {
+            List<String> partition = userIds.subList(from, Math.min(from + size, userIds.size()));
+            futures.add(partitionExecutor.submit(() -> processPartition(partition, budgetsByUser, today)));
+        }
 
-            // ✅ 사용자 전역 알림 설정 확인
-            UserInfoDTO user = null;
+        int alerts = 0;
+        int failedPartitions = 0;
+        for (Future<Integer> future : futures) {
             try {
-                user = userInfoService.findByUserId(userId);
-            } catch (Exception e) {
-                log.error("사용자 정보 조회 중 오류 발생: {}", userId, e);
-                continue;
+                alerts += future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.error("예산 알림 파티션 대기 중 인터럽트 발생");
+                failedPartitions++;
+            } catch (ExecutionException e) {
+                // 한 파티션의 오류가 다른 파티션 처리에 영향을 주지 않도록 기록만 하고 계속 진행
+                log.error("예산 알림 파티션 처리 중 오류 발생", e.getCause());
+                failedPartitions++;
             }
+        }
 
-            if (user == null || user.globalAlertEnabled() == null || !user.globalAlertEnabled()) {
-                log.info("사용자 {}의 전역 알림이 비활성화되어 건너뜀.", userId);
-                continue;
-            }
+        long wallTimeMs = System.currentTimeMillis() - startTime;
+        double usersPerSecond = wallTimeMs == 0 ? userIds.size() : userIds.size() * 1000.0 / wallTimeMs;
+        BudgetAlertRunStatsDTO stats = new BudgetAlertRunStatsDTO(startedAt, wallTimeMs, budgetCount, userIds.size(),
+                futures.size(), failedPartitions, alerts, usersPerSecond);
+        lastRunStats.set(stats);
 
-            // 이미 이번 달에 알림을 보냈는지 확인
-            boolean alreadySent = budgetAlertLogRepository.existsByUserIdAndYearAndMonthAndCategory(userId, year, month, category);
-            if (alreadySent) {
-                log.info("사용자 {}의 {} 카테고리에 대한 알림이 이미 발송되어 건너뜜.", userId, category);
-                continue;
-            }
+        log.info("예산 초과 예측 알림 스케줄러 종료 - 예산 {}건, 사용자 {}명, 파티션 {}개(실패 {}), 알림 {}건, {}ms ({} users/sec)",
+                budgetCount, userIds.size(), futures.size(), failedPartitions, alerts, wallTimeMs,
+                String.format("%.1f", usersPerSecond));
+    }
 
-            // 현재까지의 지출액 계산
-            BigDecimal currentSpending;
-            try {
-                currentSpending = spendingService.calculateMonthlySpendingSum(userId, year, month, category);
-            } catch (Exception e) {
-                log.error("사용자 {}의 {} 카테고리 지출 합계 계산 중 오류 발생. 건너뜁니다.", userId, category, e);
-                continue;
-            }
+    /**
+     * 사용자 파티션 하나를 처리하고 발송 대상 알림 수를 반환합니다.
+     */
+    private int processPartition(List<String> userIds, Map<String, List<BudgetEntity>> budgetsByUser, LocalDate today) {
+        YearMonth currentYearMonth = YearMonth.from(today);
 
-            // 디버깅 로그 추가
-            log.info("\n[예산 검사] 사용자: {}, 카테고리: {}, 총 예산: {}\n" +
-                     " -> 현재 지출액: {}\n",
-                     userId, category, budget.getTotalBudget(), currentSpending);
+        Map<String, UserInfoEntity> users = userInfoRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(UserInfoEntity::getUserId, Function.identity()));
 
-            // 지출이 0이면 계산할 필요 없음
-            if (currentSpending.compareTo(BigDecimal.ZERO) == 0) {
-                continue;
+        Set<String> alreadySent = budgetAlertLogRepository
+                .findAllByYearAndMonthAndUserIdIn(currentYearMonth.getYear(), currentYearMonth.getMonthValue(), userIds).stream()
+                .map(l -> alertKey(l.getUserId(), l.getCategory()))
+                .collect(Collectors.toSet());
+
+        Map<String, Map<String, BigDecimal>> spendingByUser = spendingService.getCategoryTotalsByUsers(userIds, currentYearMonth);
+
+        List<PendingAlert> alerts = new ArrayList<>();
+        for (String userId : userIds) {
+            for (BudgetEntity budget : budgetsByUser.get(userId)) {
+                PendingAlert alert = evaluate(budget, users.get(userId), alreadySent,
+                        spendingByUser.getOrDefault(userId, Map.of()), today);
+                if (alert != null) {
+                    alerts.add(alert);
+                }
             }
+        }
 
-            // 하루 평균 지출액 계산
+        sendAlerts(alerts);
+        return alerts.size();
+    }
 
-            // 하루 평균 지출액 계산
-            BigDecimal dailyAverageSpending = currentSpending.divide(BigDecimal.valueOf(dayOfMonth), 2, RoundingMode.HALF_UP);
+    /**
+     * 예산 1건에 대해 이번 달 예상 지출액을 계산하고, 임계값을 넘으면 발송 대상으로 반환합니다.
+     * 모든 입력은 미리 조회된 값이므로 DB 접근이 없습니다.
+     */
+    private PendingAlert evaluate(BudgetEntity budget, UserInfoEntity user, Set<String> alreadySent,
+                                  Map<String, BigDecimal> categoryTotals, LocalDate today) {
+        String userId = budget.getUserId();
+        String category = budget.getCategory();
 
-            // 남은 날짜 계산
-            int remainingDays = daysInMonth - dayOfMonth;
+        // ✅ 사용자 전역 알림 설정 확인
+        if (user == null || user.getGlobalAlertEnabled() == null || !user.getGlobalAlertEnabled()) {
+            log.debug("사용자 {}의 전역 알림이 비활성화되어 건너뜀.", userId);
+            return null;
+        }
 
-            // 예상 총 지출액 계산
-            BigDecimal estimatedTotalSpending = currentSpending.add(dailyAverageSpending.multiply(BigDecimal.valueOf(remainingDays)));
+        // 이미 이번 달에 알림을 보냈는지 확인
+        if (alreadySent.contains(alertKey(userId, category))) {
+            log.debug("사용자 {}의 {} 카테고리에 대한 알림이 이미 발송되어 건너뜀.", userId, category);
+            return null;
+        }
 
-            // 디버깅 로그 추가
-            log.info(" -> 하루 평균: {}, 남은 날짜: {}, 최종 예상 지출액: {}\n",
-                    dailyAverageSpending, remainingDays, estimatedTotalSpending);
+        // 현재까지의 지출액
+        BigDecimal currentSpending = categoryTotals.getOrDefault(category, BigDecimal.ZERO);
 
-            // 예상 지출액이 예산을 초과하는 경우
-            // ✅ 사용자 정의 임계값 적용
-            double threshold = (user.budgetAlertThresholdPercentage() != null) ? user.budgetAlertThresholdPercentage() : 1.0;
-            BigDecimal thresholdBudget = budget.getTotalBudget().multiply(BigDecimal.valueOf(threshold));
+        // 지출이 0이면 계산할 필요 없음
+        if (currentSpending.compareTo(BigDecimal.ZERO) == 0) {
+            return null;
+        }
 
-            if (estimatedTotalSpending.compareTo(thresholdBudget) > 0) {
-                log.info("사용자 {}의 {} 카테고리 예산 초과 예측됨 (임계값 {}%). 알림 발송 시도.", userId, category, threshold * 100);
-                sendAlert(userId, budget, estimatedTotalSpending, threshold); // Pass threshold to sendAlert
-            }
+        int dayOfMonth = today.getDayOfMonth();
+        int daysInMonth = today.lengthOfMonth();
+
+        // 하루 평균 지출액 계산
+        BigDecimal dailyAverageSpending = currentSpending.divide(BigDecimal.valueOf(dayOfMonth), 2, RoundingMode.HALF_UP);
+
+        // 남은 날짜 계산
+        int remainingDays = daysInMonth - dayOfMonth;
+
+        // 예상 총 지출액 계산
+        BigDecimal estimatedTotalSpending = currentSpending.add(dailyAverageSpending.multiply(BigDecimal.valueOf(remainingDays)));
+
+        log.debug("[예산 검사] 사용자: {}, 카테고리: {}, 총 예산: {}, 현재 지출액: {}, 최종 예상 지출액: {}",
+                userId, category, budget.getTotalBudget(), currentSpending, estimatedTotalSpending);
+
+        // ✅ 사용자 정의 임계값 적용
+        double threshold = (user.getBudgetAlertThresholdPercentage() != null) ? user.getBudgetAlertThresholdPercentage() : 1.0;
+        BigDecimal thresholdBudget = budget.getTotalBudget().multiply(BigDecimal.valueOf(threshold));
+
+        if (estimatedTotalSpending.compareTo(thresholdBudget) <= 0) {
+            return null;
         }
-        log.info("예산 초과 예측 알림 스케줄러 종료");
+
+        log.info("사용자 {}의 {} 카테고리 예산 초과 예측됨 (임계값 {}%). 알림 발송 대상.", userId, category, threshold * 100);
+        return new PendingAlert(user, budget, estimatedTotalSpending, threshold);
     }
 
-    private void sendAlert(String userId, BudgetEntity budget, BigDecimal estimatedSpending, double threshold) {
-        try {
-            // 사용자 정보에서 이메일을 가져오는 로직
-            UserInfoDTO user = userInfoService.findByUserId(userId);
-            if (user == null || user.email() == null) {
-                log.warn("사용자 {}의 이메일 정보를 찾을 수 없어 알림을 발송할 수 없습니다.", userId);
-                return;
-            }
-            String userEmail = user.email();
+    /**
+     * 인앱 알림과 발송 기록, 메일을 saveAll 로 한 번에 저장합니다.
+     */
+    private void sendAlerts(List<PendingAlert> alerts) {
+        if (alerts.isEmpty()) {
+            return;
+        }
 
-            String subject = String.format("[SaveMate] %d월 %s 카테고리 예산 초과 예측 알림", budget.getMonth(), budget.getCategory());
-            String content = String.format(
-                "안녕하세요, %s님.\n" +
-                "이번 달 %s 카테고리의 소비 속도를 분석한 결과, 이달 말까지 약 %,.0f원을 사용하실 것으로 예측됩니다.\n" +
-                "설정하신 예산 %,.0f원의 %.0f%%를 초과할 가능성이 높으니, 남은 기간 동안 지출에 유의해 주세요.",
-                user.name(), // userId 대신 사용자 이름 사용
-                budget.getCategory(),
-                estimatedSpending,
-                budget.getTotalBudget(),
-                threshold * 100 // Pass threshold percentage
-            );
+        LocalDateTime now = LocalDateTime.now();
+        List<NotificationEntity> notifications = new ArrayList<>(alerts.size());
+        List<BudgetAlertLogEntity> logs = new ArrayList<>(alerts.size());
+        List<MailDTO> mails = new ArrayList<>(alerts.size());
 
-            // MailDTO를 사용하여 메일 발송
-            MailDTO mailDTO = MailDTO.builder()
-                    .toMail(userEmail)
-                    .title(subject)
-                    .contents(content)
-                    .build();
+        for (PendingAlert alert : alerts) {
+            UserInfoEntity user = alert.user();
+            BudgetEntity budget = alert.budget();
+            String content = buildContent(user, budget, alert.estimatedSpending(), alert.threshold());
 
-            // ✅ 인앱 알림 저장
-            NotificationEntity notification = NotificationEntity.builder()
-                    .userId(userId)
+            // ✅ 인앱 알림
+            notifications.add(NotificationEntity.builder()
+                    .userId(user.getUserId())
                     .type("BUDGET_ALERT") // 알림 타입
                     .message(content) // 메일 내용과 동일하게 사용
                     .isRead(false) // 처음에는 읽지 않은 상태
-                    .createdAt(LocalDateTime.now())
-                    .build();
-            notificationRepository.save(notification);
-            log.info("사용자 {}에게 인앱 알림 저장 완료", userId);
+                    .createdAt(now)
+                    .build());
 
-            mailService.doSendMail(mailDTO);
-
-            // 알림 발송 기록 저장
-            BudgetAlertLogEntity logEntity = BudgetAlertLogEntity.builder()
-                    .userId(userId)
+            // 알림 발송 기록
+            logs.add(BudgetAlertLogEntity.builder()
+                    .userId(user.getUserId())
                     .year(budget.getYear())
                     .month(budget.getMonth())
                     .category(budget.getCategory())
-                    .sentAt(LocalDateTime.now())
-                    .build();
-            budgetAlertLogRepository.save(logEntity);
-
-            log.info("사용자 {}에게 알림 메일 발송 및 로그 저장 완료", userId);
+                    .sentAt(now)
+                    .build());
 
-        } catch (Exception e) {
-            log.error("알림 메일 발송 중 오류 발생: 사용자 - {}, 카테고리 - {}", userId, budget.getCategory(), e);
+            if (user.getEmail() == null) {
+                log.warn("사용자 {}의 이메일 정보를 찾을 수 없어 메일은 발송하지 않습니다.", user.getUserId());
+                continue;
+            }
+            mails.add(MailDTO.builder()
+                    .toMail(user.getEmail())
+                    .title(String.format("[SaveMate] %d월 %s 카테고리 예산 초과 예측 알림", budget.getMonth(), budget.getCategory()))
+                    .contents(content)
+                    .build());
         }
+
+        // 인앱 알림, 발송 기록, 메일 Outbox 를 한 트랜잭션으로 저장 (메일은 백그라운드 발송기가 전송)
+        transactionTemplate.executeWithoutResult(status -> {
+            List<NotificationEntity> saved = notificationRepository.saveAll(notifications);
+            budgetAlertLogRepository.saveAll(logs);
+            mailService.enqueueMails(mails);
+            eventPublisher.publishEvent(new NotificationCreatedEvent(saved)); // 커밋 후 접속 중인 사용자에게 전송
+        });
+        log.info("인앱 알림 {}건, 발송 기록 {}건, 메일 {}건 저장 완료", notifications.size(), logs.size(), mails.size());
+    }
+
+    private String buildContent(UserInfoEntity user, BudgetEntity budget, BigDecimal estimatedSpending, double threshold) {
+        return String.format(
+                "안녕하세요, %s님.\n" +
+                "이번 달 %s 카테고리의 소비 속도를 분석한 결과, 이달 말까지 약 %,.0f원을 사용하실 것으로 예측됩니다.\n" +
+                "설정하신 예산 %,.0f원의 %.0f%%를 초과할 가능성이 높으니, 남은 기간 동안 지출에 유의해 주세요.",
+                user.getName(), // userId 대신 사용자 이름 사용
+                budget.getCategory(),
+                estimatedSpending,
+                budget.getTotalBudget(),
+                threshold * 100
+        );
+    }
+
+    private static String alertKey(String userId, String category) {
+        return userId + "|" + category;
     }
-}
\ No newline at end of file
+}
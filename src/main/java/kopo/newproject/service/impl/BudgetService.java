@@ -1,6 +1,8 @@
 package kopo.newproject.service.impl;
 
+import kopo.newproject.dto.BudgetAdjustmentDTO;
 import kopo.newproject.dto.BudgetDTO;
+import kopo.newproject.dto.BudgetUsageKey;
 import kopo.newproject.repository.entity.jpa.BudgetEntity;
 import kopo.newproject.repository.entity.jpa.UserInfoEntity;
 import kopo.newproject.repository.jpa.BudgetRepository;
@@ -12,19 +14,24 @@ import kopo.newproject.dto.MailDTO; // MailDTO 임포트 추가
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime; // LocalDateTime 임포트 추가
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.YearMonth;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Service("BudgetService")
 
@@ -37,13 +44,21 @@ public class BudgetService implements IBudgetService {
     private final IBokService bokService;
     private final UserInfoRepository userInfoRepository;
     private final IMailService mailService; // IMailService 주입
+    private final TransactionTemplate transactionTemplate;
+    private final MailTemplateRenderer mailTemplateRenderer;
 
-    public BudgetService(BudgetRepository budgetRepository, SpendingService spendingService, IBokService bokService, UserInfoRepository userInfoRepository, IMailService mailService) {
+    // 물가 반영 일괄 조정 시 한 트랜잭션에서 처리할 사용자 수
+    @Value("${budget.cpi.chunk-size:500}")
+    private int cpiAdjustChunkSize;
+
+    public BudgetService(BudgetRepository budgetRepository, SpendingService spendingService, IBokService bokService, UserInfoRepository userInfoRepository, IMailService mailService, TransactionTemplate transactionTemplate, MailTemplateRenderer mailTemplateRenderer) {
         this.budgetRepository = budgetRepository;
         this.spendingService = spendingService;
         this.bokService = bokService;
         this.userInfoRepository = userInfoRepository;
         this.mailService = mailService;
+        this.transactionTemplate = transactionTemplate;
+        this.mailTemplateRenderer = mailTemplateRenderer;
     }
     
     
@@ -111,8 +126,7 @@ public class BudgetService implements IBudgetService {
         if (optional.isEmpty()) return null;
 
         BudgetEntity entity = optional.get();
-        BigDecimal used = spendingService.calculateMonthlySpendingSum(userId, year, month, entity.getCategory());
-        entity.setUsedBudget(used);
+        applyUsedBudgets(userId, List.of(entity));
         return entity;
     }
 
@@ -143,12 +157,7 @@ public class BudgetService implements IBudgetService {
     @Override
     public List<BudgetEntity> getBudgetsByUserId(String userId) {
         List<BudgetEntity> budgets = budgetRepository.findAllByUserId(userId);
-        for (BudgetEntity b : budgets) {
-            BigDecimal used = spendingService.calculateMonthlySpendingSum(
-                    userId, b.getYear(), b.getMonth(), b.getCategory()
-            );
-            b.setUsedBudget(used);
-        }
+        applyUsedBudgets(userId, budgets);
         return budgets;
     }
 
@@ -157,11 +166,21 @@ public class BudgetService implements IBudgetService {
     @Override
     public List<BudgetEntity> getBudgetsByUserIdAndYearMonth(String userId, int year, int month) {
         List<BudgetEntity> budgets = budgetRepository.findAllByUserIdAndYearAndMonth(userId, year, month);
+        applyUsedBudgets(userId, budgets);
+        return budgets;
+    }
+
+    // 예산 목록의 사용액을 한 번의 집계로 채워 넣음 (예산 건별 조회 방지)
+    private void applyUsedBudgets(String userId, List<BudgetEntity> budgets) {
+        if (budgets.isEmpty()) return;
+
+        Map<BudgetUsageKey, BigDecimal> usedByKey = spendingService.calculateMonthlySpendingSums(userId,
+                budgets.stream()
+                        .map(b -> new BudgetUsageKey(b.getYear(), b.getMonth(), b.getCategory()))
+                        .collect(Collectors.toSet()));
         for (BudgetEntity b : budgets) {
-            BigDecimal used = spendingService.calculateMonthlySpendingSum(userId, year, month, b.getCategory());
-            b.setUsedBudget(used);
+            b.setUsedBudget(usedByKey.getOrDefault(new BudgetUsageKey(b.getYear(), b.getMonth(), b.getCategory()), BigDecimal.ZERO));
         }
-        return budgets;
     }
 
 
@@ -247,14 +266,20 @@ public class BudgetService implements IBudgetService {
 
     /**
      * 매월 1일 자정에 실행되어 물가지수를 반영하여 예산을 자동 조정합니다.
+     * 자동 조정을 켠 사용자를 청크로 나누어, 청크마다 하나의 트랜잭션에서
+     * 조정 전 금액 조회 → 일괄 UPDATE → 조정 후 금액 조회 → 안내 메일 등록을 처리합니다.
      */
     @Scheduled(cron = "0 0 0 1 * ?") // 매월 1일 0시 0분 0초에 실행
     public void adjustBudgetsBasedOnInflation() {
         log.info("START: Scheduled job adjustBudgetsBasedOnInflation");
+        long startTime = System.currentTimeMillis();
 
-        // 1. 모든 사용자 조회
-        List<UserInfoEntity> allUsers = userInfoRepository.findAll();
-        log.info("Scheduled job: Found {} users to potentially adjust budgets for.", allUsers.size());
+        // 1. 자동 조정을 켠 사용자만 조회
+        List<UserInfoEntity> users = userInfoRepository.findAllByAutoBudgetAdjustmentEnabledTrue();
+        log.info("Scheduled job: Found {} users with auto-adjustment enabled.", users.size());
+        if (users.isEmpty()) {
+            return;
+        }
 
         // 물가 상승률은 한 번만 계산
         double growthRate = bokService.getLatestCpiGrowthRate();
@@ -265,76 +290,79 @@ public class BudgetService implements IBudgetService {
         BigDecimal inflationMultiplier = BigDecimal.valueOf(1 + (growthRate / 100.0));
         log.info("Scheduled job: Applying CPI growth rate of {}% (Multiplier: {})", growthRate, inflationMultiplier);
 
-        for (UserInfoEntity user : allUsers) {
-            // 2. 사용자의 자동 예산 조정 설정 확인
-            if (user.getAutoBudgetAdjustmentEnabled() != null && user.getAutoBudgetAdjustmentEnabled()) {
-                log.info("Scheduled job: Adjusting budgets for user: {}", user.getUserId());
-
-                // 현재 월의 사용자 예산 조회
-                YearMonth currentMonth = YearMonth.now();
-                List<BudgetEntity> userBudgets = budgetRepository.findAllByUserIdAndYearAndMonth(
-                        user.getUserId(), currentMonth.getYear(), currentMonth.getMonthValue()
-                );
-
-                if (userBudgets.isEmpty()) {
-                    log.info("Scheduled job: User {} has no budgets for the current month ({}). Skipping adjustment.", user.getUserId(), currentMonth);
-                    continue;
-                }
-
-                StringBuilder emailContent = new StringBuilder();
-                emailContent.append("안녕하세요, SaveMate 입니다.<br><br>");
-                emailContent.append("이번 달 물가 변동을 반영하여 예산이 자동 조정되었습니다.<br>");
-                emailContent.append(String.format("적용된 물가 상승률: %.2f%%<br><br>", growthRate));
-                emailContent.append("조정된 예산 내역:<br>");
-                emailContent.append("<table border='1' style='border-collapse: collapse; width: 100%;'>");
-                emailContent.append("<thead><tr><th>카테고리</th><th>원래 예산</th><th>조정된 예산</th></tr></thead><tbody>");
-
-                boolean adjustedAnyBudget = false;
-                for (BudgetEntity budget : userBudgets) {
-                    BigDecimal originalBudget = budget.getTotalBudget();
-                    BigDecimal adjustedBudget = originalBudget.multiply(inflationMultiplier).setScale(0, RoundingMode.HALF_UP);
-
-                    log.info("Scheduled job: Adjusting budget for user {} - category '{}': From {} to {}",
-                            user.getUserId(), budget.getCategory(), originalBudget, adjustedBudget);
-
-                    budget.updateBudgetInfo(budget.getYear(), budget.getMonth(), budget.getCategory(), adjustedBudget);
-                    budget.setLastAdjustedDate(LocalDateTime.now()); // Set last adjusted date
-                    budgetRepository.save(budget);
-
-                    emailContent.append(String.format("<tr><td>%s</td><td>%s원</td><td>%s원</td></tr>",
-                            budget.getCategory(), originalBudget.toPlainString(), adjustedBudget.toPlainString()));
-                    adjustedAnyBudget = true;
-                }
-                emailContent.append("</tbody></table><br>");
-                emailContent.append("SaveMate와 함께 현명한 소비 생활을 이어가세요!<br>");
-
-                // 예산이 실제로 조정된 경우에만 이메일 발송
-                if (adjustedAnyBudget) {
-                    try {
-                        // 사용자 이메일 주소 가져오기 (UserInfoRepository 필요)
-                        Optional<UserInfoEntity> userOpt = userInfoRepository.findByUserId(user.getUserId());
-                        if (userOpt.isPresent()) {
-                            String userEmail = userOpt.get().getEmail();
-                            mailService.doSendMail(MailDTO.builder()
-                                    .toMail(userEmail)
-                                    .title("[SaveMate] 월간 예산 자동 조정 결과 안내")
-                                    .contents(emailContent.toString())
-                                    .build());
-                            log.info("Scheduled job: Sent budget adjustment email to user {}: {}", user.getUserId(), userEmail);
-                        } else {
-                            log.warn("Scheduled job: User email not found for user {}. Cannot send adjustment email.", user.getUserId());
-                        }
-                    } catch (Exception e) {
-                        log.error("Scheduled job: Failed to send budget adjustment email to user {}: {}", user.getUserId(), e.getMessage(), e);
-                    }
-                }
-
-                log.info("Scheduled job: Finished adjusting budgets for user: {}.", user.getUserId());
-            } else {
-                log.info("Scheduled job: Skipping user {} as auto-adjustment is disabled.", user.getUserId());
+        Map<String, String> emailByUserId = users.stream()
+                .filter(u -> u.getEmail() != null)
+                .collect(Collectors.toMap(UserInfoEntity::getUserId, UserInfoEntity::getEmail, (a, b) -> a));
+        List<String> userIds = users.stream().map(UserInfoEntity::getUserId).toList();
+
+        // 2. 사용자 청크 단위로 조정
+        YearMonth currentMonth = YearMonth.now();
+        int chunks = 0;
+        int failedChunks = 0;
+        int adjustedBudgets = 0;
+        for (int from = 0; from < userIds.size(); from += cpiAdjustChunkSize) {
+            List<String> chunk = userIds.subList(from, Math.min(from + cpiAdjustChunkSize, userIds.size()));
+            chunks++;
+            try {
+                Integer adjusted = transactionTemplate.execute(status ->
+                        adjustChunk(chunk, currentMonth, inflationMultiplier, growthRate, emailByUserId));
+                adjustedBudgets += adjusted == null ? 0 : adjusted;
+            } catch (Exception e) {
+                failedChunks++;
+                log.error("Scheduled job: Failed to adjust budgets for chunk of {} users: {}", chunk.size(), e.getMessage(), e);
             }
         }
 
-        log.info("END: Scheduled job adjustBudgetsBasedOnInflation");
+        log.info("END: Scheduled job adjustBudgetsBasedOnInflation (chunks: {}, failed: {}, budgets: {}, {}ms)",
+                chunks, failedChunks, adjustedBudgets, System.currentTimeMillis() - startTime);
+    }
+
+    /**
+     * 한 청크의 사용자 예산을 일괄 조정하고, 조정 전/후 금액으로 안내 메일을 만들어 발송 대기열에 등록합니다.
+     *
+     * @return 조정된 예산 수
+     */
+    private int adjustChunk(List<String> userIds, YearMonth month, BigDecimal multiplier, double growthRate,
+                            Map<String, String> emailByUserId) {
+        List<BudgetAdjustmentDTO> before = budgetRepository.findAdjustmentRows(month.getYear(), month.getMonthValue(), userIds);
+        if (before.isEmpty()) {
+            return 0;
+        }
+
+        int updated = budgetRepository.adjustTotalBudgets(month.getYear(), month.getMonthValue(), userIds,
+                multiplier, LocalDateTime.now());
+
+        Map<Long, BigDecimal> afterById = budgetRepository.findAdjustmentRows(month.getYear(), month.getMonthValue(), userIds)
+                .stream()
+                .collect(Collectors.toMap(BudgetAdjustmentDTO::budgetId, BudgetAdjustmentDTO::totalBudget));
+
+        // 사용자별 조정 내역 → 안내 메일
+        Map<String, List<BudgetAdjustmentDTO>> beforeByUser = before.stream()
+                .collect(Collectors.groupingBy(BudgetAdjustmentDTO::userId, LinkedHashMap::new, Collectors.toList()));
+        List<MailDTO> mails = new ArrayList<>();
+        beforeByUser.forEach((userId, rows) -> {
+            String email = emailByUserId.get(userId);
+            if (email == null) {
+                log.warn("Scheduled job: User email not found for user {}. Cannot send adjustment email.", userId);
+                return;
+            }
+            mails.add(MailDTO.builder()
+                    .toMail(email)
+                    .title("[SaveMate] 월간 예산 자동 조정 결과 안내")
+                    .contents(buildAdjustmentMail(growthRate, rows, afterById))
+                    .build());
+        });
+        mailService.enqueueMails(mails);
+
+        log.info("Scheduled job: Adjusted {} budgets for {} users, queued {} emails.", updated, beforeByUser.size(), mails.size());
+        return updated;
+    }
+
+    private String buildAdjustmentMail(double growthRate, List<BudgetAdjustmentDTO> rows, Map<Long, BigDecimal> afterById) {
+        List<MailTemplateRenderer.AdjustedBudget> budgets = rows.stream()
+                .map(row -> new MailTemplateRenderer.AdjustedBudget(row.category(), row.totalBudget(),
+                        afterById.getOrDefault(row.budgetId(), row.totalBudget())))
+                .toList();
+        return mailTemplateRenderer.renderBudgetAdjustment(growthRate, budgets);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,174 @@
+package kopo.newproject.service.impl;
+
+import jakarta.mail.internet.MimeMessage;
+import kopo.newproject.dto.MailDTO;
+import kopo.newproject.repository.entity.jpa.MailOutboxEntity;
+import kopo.newproject.repository.jpa.MailOutboxRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * MAIL_OUTBOX 에 쌓인 메일을 배치 단위로 발송하는 백그라운드 발송기
+ * 배치 하나는 JavaMailSender.send(MimeMessage...) 한 번으로 보내므로 SMTP 연결을 재사용합니다.
+ * 배치는 조건부 UPDATE 로 PENDING → SENDING 을 선점한 행만 보내므로 여러 인스턴스나 겹친 실행이 같은 메일을 보내지 않습니다.
+ * 발송 후 상태 저장 전에 서버가 종료되면 선점 만료 후 다시 발송될 수 있습니다 (at-least-once).
+ * 발송 완료 메일은 보관 기간이 지나면 매일 정리합니다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MailOutboxSender {
+
+    private static final int BATCH_SIZE = 50;
+    private static final int MAX_BATCHES_PER_RUN = 20;
+    private static final int MAX_ATTEMPTS = 5;
+    private static final Duration BASE_BACKOFF = Duration.ofSeconds(30);
+    private static final Duration MAX_BACKOFF = Duration.ofHours(1);
+    private static final int PURGE_CHUNK_SIZE = 1000;
+
+    private final MailOutboxRepository mailOutboxRepository;
+    private final JavaMailSender mailSender;
+    private final MailService mailService;
+    private final TransactionTemplate transactionTemplate;
+
+    // 선점 후 이 시간이 지나도록 SENDING 이면 발송기가 비정상 종료된 것으로 보고 다시 대기 상태로 돌림
+    @Value("${mail.outbox.claim-timeout-minutes:10}")
+    private long claimTimeoutMinutes;
+
+    // 발송 완료 메일 보관 기간(일)
+    @Value("${mail.outbox.retention-days:14}")
+    private long retentionDays;
+
+    // 이전 실행이 끝난 뒤 10초마다 대기 메일을 발송
+    @Scheduled(fixedDelay = 10000, initialDelay = 10000)
+    public void drain() {
+        transactionTemplate.executeWithoutResult(status -> mailOutboxRepository.releaseExpiredClaims(
+                LocalDateTime.now().minusMinutes(claimTimeoutMinutes),
+                MailOutboxEntity.Status.PENDING, MailOutboxEntity.Status.SENDING));
+
+        for (int i = 0; i < MAX_BATCHES_PER_RUN; i++) {
+            List<Long> dueIds = mailOutboxRepository.findDueIds(
+                    MailOutboxEntity.Status.PENDING, LocalDateTime.now(), PageRequest.of(0, BATCH_SIZE));
+            if (dueIds.isEmpty()) {
+                return;
+            }
+            List<MailOutboxEntity> batch = claim(dueIds);
+            if (!batch.isEmpty()) {
+                sendBatch(batch);
+            }
+            if (dueIds.size() < BATCH_SIZE) {
+                return;
+            }
+        }
+    }
+
+    // 대기 중인 행만 조건부 UPDATE 로 선점한 뒤, 이번 선점 토큰이 붙은 행만 읽음
+    private List<MailOutboxEntity> claim(List<Long> ids) {
+        String token = UUID.randomUUID().toString();
+        Integer claimed = transactionTemplate.execute(status -> mailOutboxRepository.claim(ids, token, LocalDateTime.now(),
+                MailOutboxEntity.Status.PENDING, MailOutboxEntity.Status.SENDING));
+        if (claimed == null || claimed == 0) {
+            return List.of(); // 다른 발송기가 먼저 가져감
+        }
+        return mailOutboxRepository.findByClaimTokenOrderByOutboxIdAsc(token);
+    }
+
+    /**
+     * 보관 기간이 지난 발송 완료 메일을 일정 크기씩 삭제합니다.
+     */
+    @Scheduled(cron = "0 30 4 * * ?") // 매일 새벽 4시 30분
+    public void purgeSent() {
+        LocalDateTime before = LocalDateTime.now().minusDays(retentionDays);
+        long deleted = 0;
+        List<Long> ids;
+        do {
+            ids = mailOutboxRepository.findSentIdsBefore(MailOutboxEntity.Status.SENT, before, PageRequest.of(0, PURGE_CHUNK_SIZE));
+            if (!ids.isEmpty()) {
+                List<Long> chunk = ids;
+                transactionTemplate.executeWithoutResult(status -> mailOutboxRepository.deleteAllByIdInBatch(chunk));
+                deleted += ids.size();
+            }
+        } while (ids.size() == PURGE_CHUNK_SIZE);
+
+        if (deleted > 0) {
+            log.info("보관 기간({}일)이 지난 발송 완료 메일 {}건 삭제", retentionDays, deleted);
+        }
+    }
+
+    private void sendBatch(List<MailOutboxEntity> batch) {
+        // 발송 결과를 원래 Outbox 행에 되돌려 매핑하기 위해 동일 객체 기준으로 보관
+        Map<MimeMessage, MailOutboxEntity> messages = new IdentityHashMap<>();
+        Map<MailOutboxEntity, String> failures = new IdentityHashMap<>();
+
+        for (MailOutboxEntity outbox : batch) {
+            try {
+                messages.put(mailService.createMimeMessage(MailDTO.builder()
+                        .toMail(outbox.getToMail())
+                        .title(outbox.getTitle())
+                        .contents(outbox.getContents())
+                        .build()), outbox);
+            } catch (Exception e) {
+                failures.put(outbox, "메일 생성 실패: " + e.getMessage());
+            }
+        }
+
+        if (!messages.isEmpty()) {
+            try {
+                mailSender.send(messages.keySet().toArray(new MimeMessage[0]));
+            } catch (MailSendException e) {
+                if (e.getFailedMessages().isEmpty()) {
+                    messages.values().forEach(outbox -> failures.put(outbox, e.getMessage()));
+                } else {
+                    e.getFailedMessages().forEach((message, ex) -> {
+                        MailOutboxEntity outbox = messages.get(message);
+                        if (outbox != null) {
+                            failures.put(outbox, ex.getMessage());
+                        }
+                    });
+                }
+            } catch (Exception e) {
+                // 인증 실패 등 배치 전체가 실패한 경우
+                messages.values().forEach(outbox -> failures.put(outbox, e.getMessage()));
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        int sent = 0;
+        for (MailOutboxEntity outbox : batch) {
+            String error = failures.get(outbox);
+            if (error == null) {
+                outbox.markSent(now);
+                sent++;
+            } else {
+                outbox.markFailed(error, now.plus(backoff(outbox.getAttempts() + 1)), MAX_ATTEMPTS);
+                if (outbox.getStatus() == MailOutboxEntity.Status.FAILED) {
+                    log.error("메일 발송 최종 실패 (outboxId: {}, to: {}, 시도 {}회): {}",
+                            outbox.getOutboxId(), outbox.getToMail(), outbox.getAttempts(), error);
+                } else {
+                    log.warn("메일 발송 실패, 재시도 예정 (outboxId: {}, 시도 {}회): {}",
+                            outbox.getOutboxId(), outbox.getAttempts(), error);
+                }
+            }
+        }
+        mailOutboxRepository.saveAll(batch);
+
+        log.info("메일 Outbox 배치 발송 완료 - 성공 {}건, 실패 {}건", sent, batch.size() - sent);
+    }
+
+    // 시도 횟수에 따른 지수 백오프 (30초, 1분, 2분, ... 최대 1시간)
+    private static Duration backoff(int attempt) {
+        Duration delay = BASE_BACKOFF.multipliedBy(1L << Math.min(attempt - 1, 16));
+        return delay.compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : delay;
+    }
+}
@@ -1,7 +1,10 @@
 package kopo.newproject.service.impl;
 
+import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import kopo.newproject.dto.MailDTO;
+import kopo.newproject.repository.entity.jpa.MailOutboxEntity;
+import kopo.newproject.repository.jpa.MailOutboxRepository;
 import kopo.newproject.service.IMailService;
 import kopo.newproject.util.CmmUtil;
 import lombok.RequiredArgsConstructor;
@@ -10,6 +13,9 @@ import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 
 @RequiredArgsConstructor
@@ -17,6 +23,7 @@ import java.util.Random;
 public class MailService implements IMailService {
 
     private final JavaMailSender mailSender;
+    private final MailOutboxRepository mailOutboxRepository;
 
     @Value("${spring.mail.username}")
     private String fromMail;
@@ -25,6 +32,47 @@ public class MailService implements IMailService {
     public int doSendMail(MailDTO mailDTO) {
 
         int res = 1;
+
+        try {
+            mailSender.send(createMimeMessage(mailDTO));
+        } catch (Exception e) {
+            res = 0;
+        }
+
+        return res;
+    }
+
+    @Override
+    public void enqueueMail(MailDTO mailDTO) {
+        enqueueMails(List.of(mailDTO));
+    }
+
+    @Override
+    public void enqueueMails(List<MailDTO> mailDTOs) {
+        if (mailDTOs.isEmpty()) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<MailOutboxEntity> outbox = new ArrayList<>(mailDTOs.size());
+        for (MailDTO mailDTO : mailDTOs) {
+            outbox.add(MailOutboxEntity.builder()
+                    .toMail(CmmUtil.nvl(mailDTO.getToMail()))
+                    .title(CmmUtil.nvl(mailDTO.getTitle()))
+                    .contents(CmmUtil.nvl(mailDTO.getContents()))
+                    .status(MailOutboxEntity.Status.PENDING)
+                    .attempts(0)
+                    .nextAttemptAt(now)
+                    .createdAt(now)
+                    .build());
+        }
+        mailOutboxRepository.saveAll(outbox);
+    }
+
+    /**
+     * MailDTO 로 HTML 메일 메시지를 생성합니다. (Outbox 발송기와 공용)
+     */
+    MimeMessage createMimeMessage(MailDTO mailDTO) throws MessagingException {
         if (mailDTO == null) {
             mailDTO = new MailDTO();
         }
@@ -36,18 +84,12 @@ public class MailService implements IMailService {
         MimeMessage mimeMessage = mailSender.createMimeMessage();
         MimeMessageHelper mimeMessageHelper = new MimeMessageHelper(mimeMessage, "UTF-8");
 
-        try {
-            mimeMessageHelper.setTo(toMail);
-            mimeMessageHelper.setFrom(fromMail);
-            mimeMessageHelper.setSubject(title);
-            // HTML 형식의 메일 발송 (두 번째 파라미터 true)
-            mimeMessageHelper.setText(contents, true);
-            mailSender.send(mimeMessage);
-        } catch (Exception e) {
-            res = 0;
-        }
-
-        return res;
+        mimeMessageHelper.setTo(toMail);
+        mimeMessageHelper.setFrom(fromMail);
+        mimeMessageHelper.setSubject(title);
+        // HTML 형식의 메일 발송 (두 번째 파라미터 true)
+        mimeMessageHelper.setText(contents, true);
+        return mimeMessage;
     }
 
     /**
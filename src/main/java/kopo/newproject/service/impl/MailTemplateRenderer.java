@@ -0,0 +1,113 @@
+package kopo.newproject.service.impl;
+
+import jakarta.annotation.PostConstruct;
+import kopo.newproject.dto.MonthlyReportDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 메일 본문 렌더링 전용 컴포넌트
+ * 화면용 TemplateEngine 과 분리된 엔진을 사용하여 devtools 등의 설정과 관계없이
+ * templates/mail 아래 템플릿을 한 번만 파싱해 캐시하고, 표현식은 SpEL 컴파일러로 바이트코드화합니다.
+ * 기동 시 샘플 데이터로 한 번씩 렌더링하여 첫 발송 때 파싱/컴파일 비용이 들지 않도록 합니다.
+ */
+@Slf4j
+@Service
+public class MailTemplateRenderer {
+
+    private static final String MONTHLY_REPORT = "monthlyReport";
+    private static final String BUDGET_ADJUSTMENT = "budgetAdjustment";
+
+    // 모든 메일에 공통으로 들어가는 고정 값
+    private static final Map<String, Object> SHARED_VARIABLES = Map.of(
+            "spendUrl", "https://aifinance.ai.kr/spending/page",
+            "budgetUrl", "https://aifinance.ai.kr/budget/page",
+            "goalUrl", "https://aifinance.ai.kr/goal/page"
+    );
+
+    private SpringTemplateEngine templateEngine;
+
+    /**
+     * 물가 반영 예산 조정 안내 메일의 예산 1건
+     */
+    public record AdjustedBudget(String category, BigDecimal before, BigDecimal after) {
+    }
+
+    @PostConstruct
+    public void init() {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/mail/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        resolver.setCacheable(true);
+        resolver.setCacheTTLMs(null); // 만료 없이 캐시
+
+        templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(resolver);
+        templateEngine.setEnableSpringELCompiler(true);
+
+        long startTime = System.currentTimeMillis();
+        renderMonthlyReport(sampleReport());
+        renderBudgetAdjustment(1.5, List.of(new AdjustedBudget("식비", BigDecimal.valueOf(300000), BigDecimal.valueOf(304500))));
+        log.info("메일 템플릿 사전 파싱 완료 ({}ms)", System.currentTimeMillis() - startTime);
+    }
+
+    public String renderMonthlyReport(MonthlyReportDTO report) {
+        Context context = newContext();
+        context.setVariable("report", report);
+        return templateEngine.process(MONTHLY_REPORT, context);
+    }
+
+    /**
+     * @param growthRate 적용된 물가 상승률 (%)
+     */
+    public String renderBudgetAdjustment(double growthRate, List<AdjustedBudget> budgets) {
+        Context context = newContext();
+        context.setVariable("growthRate", growthRate);
+        context.setVariable("budgets", budgets);
+        return templateEngine.process(BUDGET_ADJUSTMENT, context);
+    }
+
+    private Context newContext() {
+        Context context = new Context();
+        context.setVariables(SHARED_VARIABLES);
+        return context;
+    }
+
+    // 기동 시 사전 렌더링과 렌더링 처리량 측정(MailTemplateRendererBenchmarkTest)에 사용하는 샘플 리포트
+    static MonthlyReportDTO sampleReport() {
+        return MonthlyReportDTO.builder()
+                .userName("홍길동")
+                .userEmail("sample@savemate.kr")
+                .reportMonth(YearMonth.now().minusMonths(1))
+                .totalSpending(BigDecimal.valueOf(1234000))
+                .previousMonthTotalSpending(BigDecimal.valueOf(1100000))
+                .spendingChangePercentage(BigDecimal.valueOf(12.18))
+                .totalBudget(BigDecimal.valueOf(1500000))
+                .previousMonthTotalBudget(BigDecimal.valueOf(1500000))
+                .budgetChangePercentage(BigDecimal.ZERO)
+                .budgetAchievementRate(BigDecimal.valueOf(82.27))
+                .topSpendingCategories(List.of(
+                        MonthlyReportDTO.CategorySpendingDTO.builder().category("식비").amount(BigDecimal.valueOf(540000)).percentage(43.76).build(),
+                        MonthlyReportDTO.CategorySpendingDTO.builder().category("교통").amount(BigDecimal.valueOf(210000)).percentage(17.02).build(),
+                        MonthlyReportDTO.CategorySpendingDTO.builder().category("쇼핑").amount(BigDecimal.valueOf(180000)).percentage(14.59).build()))
+                .spendingByCategory(Map.of("식비", BigDecimal.valueOf(540000), "교통", BigDecimal.valueOf(210000),
+                        "쇼핑", BigDecimal.valueOf(180000)))
+                .goalStatuses(List.of(MonthlyReportDTO.GoalStatusDTO.builder()
+                        .goalName("여행 자금").targetAmount(BigDecimal.valueOf(2000000)).savedAmount(BigDecimal.valueOf(850000))
+                        .achievementRate(42.5).isAchieved(false).build()))
+                .aiSummary("이번 달은 식비 비중이 높았으며, 외식 빈도를 줄이면 예산 안에서 생활할 수 있습니다.")
+                .build();
+    }
+}
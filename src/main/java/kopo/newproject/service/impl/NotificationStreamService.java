@@ -0,0 +1,191 @@
+package kopo.newproject.service.impl;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import kopo.newproject.dto.NotificationCreatedEvent;
+import kopo.newproject.repository.entity.jpa.NotificationEntity;
+import kopo.newproject.repository.jpa.NotificationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * 인앱 알림 SSE 채널
+ * 사용자별로 열려 있는 SseEmitter(브라우저 탭)를 메모리에 보관하고, 알림이 저장되면 해당 사용자에게만 바로 보냅니다.
+ * DB 조회는 연결 시 읽지 않은 개수 1회와 읽음 처리 후 1회뿐이며, 연결만 유지 중인 동안에는 조회하지 않습니다.
+ * 연결 유지 확인은 주기적인 SSE 주석(heartbeat)으로 하고, 끊긴 연결은 전송 실패 시 정리합니다.
+ * 전송은 전용 실행 풀에서 하므로 느린 클라이언트가 스케줄러 스레드나 요청/트랜잭션 스레드를 붙잡지 않습니다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class NotificationStreamService {
+
+    private final NotificationRepository notificationRepository;
+
+    // 연결 최대 유지 시간 (만료되면 브라우저가 자동으로 다시 연결)
+    @Value("${notification.sse.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    // 사용자당 동시 연결(탭) 수 제한
+    @Value("${notification.sse.max-connections-per-user:5}")
+    private int maxConnectionsPerUser;
+
+    // 전송 스레드 수와 대기열 크기 (가득 차면 해당 전송은 버림 - 알림은 재연결 시 개수로 다시 맞춰짐)
+    @Value("${notification.sse.send-threads:2}")
+    private int sendThreads;
+
+    @Value("${notification.sse.send-queue-capacity:1000}")
+    private int sendQueueCapacity;
+
+    private final Map<String, List<SseEmitter>> emitters = new ConcurrentHashMap<>();
+
+    private ThreadPoolExecutor sendExecutor;
+
+    // 이전 heartbeat 가 아직 전송 중이면 이번 주기는 건너뜀
+    private final AtomicBoolean heartbeatRunning = new AtomicBoolean(false);
+
+    @PostConstruct
+    public void init() {
+        sendExecutor = new ThreadPoolExecutor(sendThreads, sendThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(sendQueueCapacity));
+    }
+
+    /**
+     * 사용자 알림 스트림을 엽니다. 연결 직후 읽지 않은 알림 개수를 한 번 보냅니다.
+     */
+    public SseEmitter subscribe(String userId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        List<SseEmitter> userEmitters = emitters.compute(userId, (k, list) -> {
+            List<SseEmitter> result = list == null ? new CopyOnWriteArrayList<>() : list;
+            result.add(emitter);
+            return result;
+        });
+
+        // 제한을 넘으면 가장 오래된 연결부터 종료
+        while (userEmitters.size() > maxConnectionsPerUser) {
+            SseEmitter oldest = userEmitters.remove(0);
+            oldest.complete();
+        }
+
+        Runnable remove = () -> removeEmitter(userId, emitter);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(e -> remove.run());
+
+        send(userId, emitter, SseEmitter.event().name("count").data(notificationRepository.countByUserIdAndIsReadFalse(userId)));
+        log.debug("알림 스트림 연결 (userId: {}, 연결 수: {})", userId, userEmitters.size());
+        return emitter;
+    }
+
+    /**
+     * 새 알림을 연결된 사용자에게 전달합니다. (트랜잭션 안에서 저장된 경우 커밋 이후 실행)
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onNotificationCreated(NotificationCreatedEvent event) {
+        Map<String, List<NotificationEntity>> byUser = event.notifications().stream()
+                .filter(n -> emitters.containsKey(n.getUserId())) // 접속 중인 사용자만
+                .collect(Collectors.groupingBy(NotificationEntity::getUserId));
+
+        if (byUser.isEmpty()) {
+            return;
+        }
+        dispatch("알림", () -> byUser.forEach((userId, notifications) -> {
+            for (NotificationEntity notification : notifications) {
+                sendToUser(userId, () -> SseEmitter.event().name("notification").data(notification, MediaType.APPLICATION_JSON));
+            }
+        }));
+    }
+
+    /**
+     * 읽음 처리 후 같은 사용자의 다른 탭에도 읽지 않은 개수를 맞춰줍니다. (접속 중이 아니면 조회하지 않음)
+     */
+    public void publishUnreadCount(String userId) {
+        if (!emitters.containsKey(userId)) {
+            return;
+        }
+        long count = notificationRepository.countByUserIdAndIsReadFalse(userId);
+        dispatch("읽지 않은 개수", () -> sendToUser(userId, () -> SseEmitter.event().name("count").data(count)));
+    }
+
+    // 프록시/로드밸런서의 유휴 연결 종료를 막고 끊긴 연결을 찾아내기 위한 주석 이벤트
+    // 스케줄러 스레드는 다른 스케줄 작업과 공유하므로 전송은 전용 풀에 넘기고 바로 반환
+    @Scheduled(fixedDelayString = "${notification.sse.heartbeat-ms:25000}")
+    public void heartbeat() {
+        if (emitters.isEmpty() || !heartbeatRunning.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            sendExecutor.execute(() -> {
+                try {
+                    emitters.forEach((userId, userEmitters) -> sendToUser(userId, () -> SseEmitter.event().comment("ping")));
+                } finally {
+                    heartbeatRunning.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            heartbeatRunning.set(false);
+            log.warn("알림 스트림 전송 대기열이 가득 차 heartbeat 를 건너뜁니다.");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sendExecutor.shutdownNow();
+        emitters.values().forEach(userEmitters -> userEmitters.forEach(SseEmitter::complete));
+        emitters.clear();
+    }
+
+    private void dispatch(String description, Runnable send) {
+        try {
+            sendExecutor.execute(send);
+        } catch (RejectedExecutionException e) {
+            log.warn("알림 스트림 전송 대기열이 가득 차 {} 전송을 건너뜁니다.", description);
+        }
+    }
+
+    // 이벤트 빌더는 전송 시 내용이 확정되므로 연결마다 새로 만듦
+    private void sendToUser(String userId, Supplier<SseEmitter.SseEventBuilder> event) {
+        List<SseEmitter> userEmitters = emitters.get(userId);
+        if (userEmitters == null) {
+            return;
+        }
+        for (SseEmitter emitter : userEmitters) {
+            send(userId, emitter, event.get());
+        }
+    }
+
+    private void send(String userId, SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+        } catch (Exception e) {
+            // 브라우저 탭이 닫히는 등 연결이 끊긴 경우
+            removeEmitter(userId, emitter);
+            emitter.completeWithError(e);
+        }
+    }
+
+    private void removeEmitter(String userId, SseEmitter emitter) {
+        emitters.computeIfPresent(userId, (k, userEmitters) -> {
+            userEmitters.remove(emitter);
+            return userEmitters.isEmpty() ? null : userEmitters;
+        });
+    }
+}
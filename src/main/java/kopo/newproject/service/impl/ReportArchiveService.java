@@ -0,0 +1,174 @@
+package kopo.newproject.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoWriteException;
+import com.mongodb.client.gridfs.model.GridFSFile;
+import kopo.newproject.dto.MonthlyReportDTO;
+import kopo.newproject.util.EncryptUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.bson.types.ObjectId;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.gridfs.GridFsTemplate;
+import org.springframework.data.mongodb.gridfs.GridFsUpload;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 생성된 월간 리포트 보관소 (Mongo GridFS)
+ * (사용자, 리포트 월)마다 렌더링된 HTML 을 gzip 으로 압축해 파일 본문으로, 리포트 DTO(JSON, gzip)와
+ * HTML 의 SHA-256 해시를 메타데이터로 저장합니다.
+ * 재발송/다시 보기는 원본 데이터를 다시 집계하지 않고 파일 1건만 읽으며,
+ * (사용자, 리포트 월)마다 처음 보관한 리포트만 유지하므로(고유 인덱스) 지난 달 지출이 나중에 수정되어도
+ * 이미 보관된 리포트는 바뀌지 않습니다.
+ * 진행 중인 달은 아직 확정되지 않았으므로 보관하지 않습니다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReportArchiveService {
+
+    private static final String FILES_COLLECTION = "fs.files";
+    private static final String CHUNKS_COLLECTION = "fs.chunks";
+    private static final String CONTENT_TYPE = "application/gzip";
+    private static final String INDEX_NAME = "uk_report_archive_user_month";
+    // 이전 버전의 비고유 인덱스 (같은 키의 고유 인덱스 생성을 막으므로 제거)
+    private static final String LEGACY_INDEX_NAME = "idx_report_archive_user_month";
+
+    private final GridFsTemplate gridFsTemplate;
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndex() {
+        try {
+            IndexOperations indexOps = mongoTemplate.indexOps(FILES_COLLECTION);
+            if (indexOps.getIndexInfo().stream().anyMatch(index -> LEGACY_INDEX_NAME.equals(index.getName()))) {
+                removeDuplicates();
+                indexOps.dropIndex(LEGACY_INDEX_NAME);
+            }
+            indexOps.ensureIndex(new Index()
+                    .on("metadata.userId", Sort.Direction.ASC)
+                    .on("metadata.reportMonth", Sort.Direction.ASC)
+                    .unique()
+                    .named(INDEX_NAME));
+        } catch (Exception e) {
+            log.error("Failed to ensure report archive index on {}: {}", FILES_COLLECTION, e.getMessage());
+        }
+    }
+
+    /**
+     * 보관 대상 월인지 (이미 끝난 달만 보관)
+     */
+    public static boolean isArchivable(YearMonth reportMonth) {
+        return reportMonth.isBefore(YearMonth.now(ZoneId.of("Asia/Seoul")));
+    }
+
+    /**
+     * 리포트를 보관합니다. 이미 보관된 리포트가 있으면 내용과 관계없이 다시 쓰지 않습니다.
+     * 동시에 보관하면 고유 인덱스로 먼저 저장된 한 건만 남고, 나머지는 올린 조각(chunk)을 지우고 무시합니다.
+     */
+    public void save(String userId, YearMonth reportMonth, MonthlyReportDTO report, String html) throws IOException {
+        if (findFile(userId, reportMonth) != null) {
+            log.debug("리포트 보관 생략 (이미 보관됨): userId={}, month={}", userId, reportMonth);
+            return;
+        }
+
+        Document metadata = new Document("userId", userId)
+                .append("reportMonth", reportMonth.toString())
+                .append("contentHash", EncryptUtil.sha256Hex(html))
+                .append("report", new Binary(gzip(objectMapper.writeValueAsBytes(report))))
+                .append("archivedAt", new Date());
+
+        ObjectId fileId = new ObjectId();
+        try {
+            gridFsTemplate.store(GridFsUpload.fromStream(new ByteArrayInputStream(gzip(html.getBytes(StandardCharsets.UTF_8))))
+                    .id(fileId)
+                    .filename(fileName(userId, reportMonth))
+                    .contentType(CONTENT_TYPE)
+                    .metadata(metadata)
+                    .build());
+        } catch (MongoWriteException e) {
+            if (e.getError().getCategory() != ErrorCategory.DUPLICATE_KEY) {
+                throw e;
+            }
+            discardChunks(userId, reportMonth, fileId);
+            return;
+        } catch (DuplicateKeyException e) {
+            discardChunks(userId, reportMonth, fileId);
+            return;
+        }
+        log.debug("리포트 보관 완료: userId={}, month={}", userId, reportMonth);
+    }
+
+    // 파일 문서 저장이 고유 인덱스에 걸리면 먼저 올라간 조각만 남으므로 제거
+    private void discardChunks(String userId, YearMonth reportMonth, ObjectId fileId) {
+        mongoTemplate.remove(Query.query(Criteria.where("files_id").is(fileId)), CHUNKS_COLLECTION);
+        log.debug("리포트 보관 생략 (동시에 보관됨): userId={}, month={}", userId, reportMonth);
+    }
+
+    // 고유 인덱스 생성 전에 (사용자, 월)별로 가장 먼저 보관된 파일만 남김
+    private void removeDuplicates() {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.sort(Sort.Direction.ASC, "uploadDate"),
+                Aggregation.group("metadata.userId", "metadata.reportMonth").push("_id").as("ids").count().as("count"),
+                Aggregation.match(Criteria.where("count").gt(1)));
+        for (Document group : mongoTemplate.aggregate(aggregation, FILES_COLLECTION, Document.class)) {
+            List<Object> ids = group.getList("ids", Object.class);
+            gridFsTemplate.delete(Query.query(Criteria.where("_id").in(ids.subList(1, ids.size()))));
+            log.info("중복 보관 리포트 {}건 정리: {}", ids.size() - 1, group.get("_id"));
+        }
+    }
+
+    /**
+     * 보관된 리포트 HTML
+     */
+    public Optional<String> findHtml(String userId, YearMonth reportMonth) throws IOException {
+        GridFSFile file = findFile(userId, reportMonth);
+        if (file == null) {
+            return Optional.empty();
+        }
+        try (InputStream in = new GZIPInputStream(gridFsTemplate.getResource(file).getInputStream())) {
+            return Optional.of(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    private GridFSFile findFile(String userId, YearMonth reportMonth) {
+        Query query = Query.query(Criteria.where("metadata.userId").is(userId)
+                .and("metadata.reportMonth").is(reportMonth.toString()));
+        return gridFsTemplate.find(query).first();
+    }
+
+    private static String fileName(String userId, YearMonth reportMonth) {
+        return userId + "/" + reportMonth + ".html.gz";
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        }
+        return out.toByteArray();
+    }
+}
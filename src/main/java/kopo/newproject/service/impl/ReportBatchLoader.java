@@ -0,0 +1,127 @@
+package kopo.newproject.service.impl;
+
+import kopo.newproject.dto.BudgetMonthTotalDTO;
+import kopo.newproject.dto.ReportInputDTO;
+import kopo.newproject.repository.entity.jpa.GoalEntity;
+import kopo.newproject.repository.entity.jpa.UserInfoEntity;
+import kopo.newproject.repository.entity.mongo.AIAnalysisEntity;
+import kopo.newproject.repository.jpa.BudgetRepository;
+import kopo.newproject.repository.jpa.GoalRepository;
+import kopo.newproject.repository.jpa.UserInfoRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * 월간 리포트 입력 데이터를 여러 사용자에 대해 한 번에 조회하는 로더
+ * 사용자 수와 관계없이 청크당 사용자/지출 롤업/예산/목표/AI 분석 각 1회씩의 조회로 처리합니다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReportBatchLoader {
+
+    private final UserInfoRepository userInfoRepository;
+    private final BudgetRepository budgetRepository;
+    private final GoalRepository goalRepository;
+    private final SpendingRollupService spendingRollupService;
+    private final MongoTemplate mongoTemplate;
+
+    // Helper class for aggregation result
+    private static class LatestAnalysis {
+        private String id; // userId
+        private String result;
+
+        public String getId() { return id; }
+        public void setId(String id) { this.id = id; }
+        public String getResult() { return result; }
+        public void setResult(String result) { this.result = result; }
+    }
+
+    /**
+     * @param userIds     리포트 대상 사용자 ID
+     * @param reportMonth 리포트 대상 연월
+     * @return 사용자 ID → 리포트 입력 (존재하지 않는 사용자는 제외)
+     */
+    public Map<String, ReportInputDTO> load(Collection<String> userIds, YearMonth reportMonth) {
+        Map<String, ReportInputDTO> result = new LinkedHashMap<>();
+        if (userIds.isEmpty()) {
+            return result;
+        }
+        long startTime = System.currentTimeMillis();
+        YearMonth previousMonth = reportMonth.minusMonths(1);
+
+        // 1. 사용자
+        List<UserInfoEntity> users = userInfoRepository.findAllById(userIds);
+
+        // 2. 지출 (리포트 월 + 이전 월 롤업)
+        Map<String, Map<String, Map<String, BigDecimal>>> spending =
+                spendingRollupService.getCategoryTotalsByUsersAndMonths(userIds, List.of(reportMonth, previousMonth));
+
+        // 3. 예산 합계 (리포트 월 + 이전 월)
+        Map<String, Map<YearMonth, BigDecimal>> budgetTotals = new HashMap<>();
+        for (BudgetMonthTotalDTO row : budgetRepository.sumTotalBudgetsByUsers(userIds,
+                reportMonth.getYear(), reportMonth.getMonthValue(), previousMonth.getYear(), previousMonth.getMonthValue())) {
+            budgetTotals.computeIfAbsent(row.userId(), k -> new HashMap<>())
+                    .put(YearMonth.of(row.year(), row.month()), row.totalBudget());
+        }
+
+        // 4. 목표
+        Map<String, List<GoalEntity>> goals = goalRepository.findByUserIdInOrderByDeadlineAsc(userIds).stream()
+                .collect(Collectors.groupingBy(GoalEntity::getUserId));
+
+        // 5. 리포트 월의 사용자별 최신 AI 분석 결과
+        Map<String, String> analyses = findLatestAnalysisResults(userIds, reportMonth);
+
+        for (UserInfoEntity user : users) {
+            String userId = user.getUserId();
+            Map<String, Map<String, BigDecimal>> userSpending = spending.getOrDefault(userId, Map.of());
+            Map<String, BigDecimal> categoryTotals = userSpending.getOrDefault(reportMonth.toString(), Map.of());
+            Map<String, BigDecimal> spendingByCategory = new HashMap<>(categoryTotals);
+            spendingByCategory.remove(""); // 카테고리가 비어 있는 지출은 제외
+            Map<YearMonth, BigDecimal> userBudgets = budgetTotals.getOrDefault(userId, Map.of());
+
+            result.put(userId, new ReportInputDTO(
+                    userId,
+                    user.getName(),
+                    user.getEmail(),
+                    spendingByCategory,
+                    sum(categoryTotals),
+                    sum(userSpending.getOrDefault(previousMonth.toString(), Map.of())),
+                    userBudgets.getOrDefault(reportMonth, BigDecimal.ZERO),
+                    userBudgets.getOrDefault(previousMonth, BigDecimal.ZERO),
+                    goals.getOrDefault(userId, List.of()),
+                    analyses.get(userId)));
+        }
+
+        log.debug("리포트 입력 일괄 조회 완료 ({}명, {}ms)", result.size(), System.currentTimeMillis() - startTime);
+        return result;
+    }
+
+    private Map<String, String> findLatestAnalysisResults(Collection<String> userIds, YearMonth month) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("userId").in(userIds).and("month").is(month.toString())),
+                Aggregation.sort(Sort.Direction.DESC, "createdAt"),
+                Aggregation.group("userId").first("result").as("result")
+        );
+
+        Map<String, String> result = new HashMap<>();
+        for (LatestAnalysis row : mongoTemplate.aggregate(aggregation, AIAnalysisEntity.class, LatestAnalysis.class)) {
+            result.put(row.getId(), row.getResult());
+        }
+        return result;
+    }
+
+    private static BigDecimal sum(Map<String, BigDecimal> categoryTotals) {
+        return categoryTotals.values().stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+}
@@ -3,33 +3,35 @@ package kopo.newproject.service.impl;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import kopo.newproject.dto.MailDTO;
 import kopo.newproject.dto.MonthlyReportDTO;
-import kopo.newproject.dto.GoalDTO;
+import kopo.newproject.dto.ReportInputDTO;
+import kopo.newproject.dto.ReportRunProgressDTO;
 import kopo.newproject.dto.UserInfoDTO;
-import kopo.newproject.repository.entity.jpa.BudgetEntity;
 import kopo.newproject.repository.entity.jpa.GoalEntity;
 import kopo.newproject.repository.entity.jpa.UserInfoEntity;
-import kopo.newproject.repository.entity.mongo.AIAnalysisEntity;
-import kopo.newproject.service.IAIAnalysisService;
-import kopo.newproject.service.IBudgetService;
-import kopo.newproject.service.IGoalService;
 import kopo.newproject.service.IMailService;
 import kopo.newproject.service.IReportService;
-import kopo.newproject.service.ISpendingService;
 import kopo.newproject.service.IUserInfoService;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.YearMonth;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import kopo.newproject.service.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.thymeleaf.TemplateEngine;
-import org.thymeleaf.context.Context;
 
 import java.util.stream.Collectors;
 import java.time.YearMonth;
@@ -40,64 +42,94 @@ import java.time.YearMonth;
 public class ReportServiceImpl implements IReportService {
 
     private final IUserInfoService userInfoService;
-    private final ISpendingService spendingService;
-    private final IBudgetService budgetService;
-    private final IGoalService goalService;
-    private final IAIAnalysisService aiAnalysisService;
     private final IMailService mailService;
-    private final TemplateEngine templateEngine;
+    private final MailTemplateRenderer mailTemplateRenderer;
+    private final ReportBatchLoader reportBatchLoader;
+    private final ReportArchiveService reportArchiveService;
 
-    @Override
-    public MonthlyReportDTO generateMonthlyReportData(String userId, YearMonth reportMonth) throws Exception {
-        log.info("리포트 데이터 생성 시작: userId={}, month={}", userId, reportMonth);
+    private static final int MAIL_BATCH_SIZE = 100;
 
-        // 리포트의 기준이 되는 월과 이전 월
-        YearMonth previousMonth = reportMonth.minusMonths(1);
+    // 데이터 수집 단계에서 한 번에 조회할 사용자 수
+    @Value("${report.pipeline.chunk-size:500}")
+    private int chunkSize;
 
-        // 1. 기본 사용자 정보
-        UserInfoDTO userInfo = userInfoService.findByUserId(userId);
+    // 단계별 작업 스레드 수 (데이터 수집은 청크 단위 일괄 조회이므로 적은 수로 충분)
+    @Value("${report.pipeline.assembly-threads:4}")
+    private int assemblyThreads;
 
-        // 2. 소비 데이터
-        BigDecimal totalSpending = spendingService.calculateMonthlySpendingSum(userId, reportMonth.getYear(), reportMonth.getMonthValue(), null);
-        BigDecimal previousMonthTotalSpending = spendingService.calculateMonthlySpendingSum(userId, previousMonth.getYear(), previousMonth.getMonthValue(), null);
-        Map<String, BigDecimal> spendingByCategory = spendingService.getSpendingByCategory(userId, reportMonth);
+    @Value("${report.pipeline.render-threads:4}")
+    private int renderThreads;
 
-        // ======================= DEBUG LOGGING START =======================
-        log.info("[DEBUG] Report Data for userId: {}, reportMonth: {}", userId, reportMonth);
-        log.info("[DEBUG] totalSpending: {}", totalSpending);
-        log.info("[DEBUG] spendingByCategory Map: {}", spendingByCategory);
-        // ======================= DEBUG LOGGING END =======================
+    // 단계별 대기열 크기
+    @Value("${report.pipeline.queue-capacity:200}")
+    private int stageQueueCapacity;
 
-        // 3. 예산 데이터
-        List<BudgetEntity> budgets = budgetService.getBudgetsByUserIdAndYearMonth(userId, reportMonth.getYear(), reportMonth.getMonthValue());
-        BigDecimal totalBudget = budgets.stream().map(BudgetEntity::getTotalBudget).reduce(BigDecimal.ZERO, BigDecimal::add);
+    @Value("${report.pipeline.mail-queue-capacity:500}")
+    private int mailQueueCapacity;
 
-        // 이전 달 예산 데이터
-        List<BudgetEntity> previousMonthBudgets = budgetService.getBudgetsByUserIdAndYearMonth(userId, previousMonth.getYear(), previousMonth.getMonthValue());
-        BigDecimal previousMonthTotalBudget = previousMonthBudgets.stream().map(BudgetEntity::getTotalBudget).reduce(BigDecimal.ZERO, BigDecimal::add);
+    private ThreadPoolExecutor assemblyExecutor;
+    private ThreadPoolExecutor renderExecutor;
+    private ExecutorService mailExecutor;
+    private ExecutorService coordinatorExecutor;
 
+    private final AtomicBoolean reportRunning = new AtomicBoolean(false);
+    private volatile ReportRun currentRun;
 
-        // 4. 목표 데이터
-        List<GoalDTO> goalDTOs = goalService.getGoalsByUser(userId);
-        List<GoalEntity> goals = goalDTOs.stream()
-                .map(this::convertToEntity)
-                .collect(Collectors.toList());
+    @PostConstruct
+    public void init() {
+        assemblyExecutor = blockingExecutor(assemblyThreads, stageQueueCapacity);
+        renderExecutor = blockingExecutor(renderThreads, stageQueueCapacity);
+        mailExecutor = Executors.newSingleThreadExecutor();
+        coordinatorExecutor = Executors.newSingleThreadExecutor();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        assemblyExecutor.shutdown();
+        renderExecutor.shutdown();
+        mailExecutor.shutdownNow();
+        coordinatorExecutor.shutdownNow();
+    }
+
+    @Override
+    public MonthlyReportDTO generateMonthlyReportData(String userId, YearMonth reportMonth) throws Exception {
+        log.debug("리포트 데이터 생성 시작: userId={}, month={}", userId, reportMonth);
 
-        // 5. AI 분석 데이터
-        AIAnalysisEntity analysis = aiAnalysisService.getAnalysisByMonth(userId, reportMonth.toString());
+        ReportInputDTO input = reportBatchLoader.load(List.of(userId), reportMonth).get(userId);
+        if (input == null) {
+            throw new RuntimeException("리포트 대상 사용자를 찾을 수 없습니다: " + userId);
+        }
+        return buildMonthlyReport(input, reportMonth);
+    }
+
+    /**
+     * 미리 조회된 입력 데이터로 리포트 DTO 를 계산합니다. (DB 조회 없음)
+     */
+    private MonthlyReportDTO buildMonthlyReport(ReportInputDTO input, YearMonth reportMonth) {
+        BigDecimal totalSpending = input.totalSpending();
+        BigDecimal previousMonthTotalSpending = input.previousMonthTotalSpending();
+        Map<String, BigDecimal> spendingByCategory = input.spendingByCategory();
+        BigDecimal totalBudget = input.totalBudget();
+        BigDecimal previousMonthTotalBudget = input.previousMonthTotalBudget();
+
+        // ======================= DEBUG LOGGING START =======================
+        log.debug("[DEBUG] Report Data for userId: {}, reportMonth: {}", input.userId(), reportMonth);
+        log.debug("[DEBUG] totalSpending: {}", totalSpending);
+        log.debug("[DEBUG] spendingByCategory Map: {}", spendingByCategory);
+        // ======================= DEBUG LOGGING END =======================
 
-        // 6. 데이터 가공 및 DTO 필드 계산
+        // 데이터 가공 및 DTO 필드 계산
         BigDecimal spendingChangePercentage = calculatePercentageChange(previousMonthTotalSpending, totalSpending);
         BigDecimal budgetChangePercentage = calculatePercentageChange(previousMonthTotalBudget, totalBudget);
         BigDecimal budgetAchievementRate = calculateAchievementRate(totalSpending, totalBudget);
         List<MonthlyReportDTO.CategorySpendingDTO> topSpendingCategories = calculateTopSpendingCategories(spendingByCategory, totalSpending);
-        List<MonthlyReportDTO.GoalStatusDTO> goalStatuses = calculateGoalStatuses(goals);
-        String aiSummary = (analysis != null) ? extractSummaryFromResult(analysis.getResult()) : "이번 달 AI 분석 내역이 없습니다.";
+        List<MonthlyReportDTO.GoalStatusDTO> goalStatuses = calculateGoalStatuses(input.goals());
+        String aiSummary = (input.analysisResult() != null) ? extractSummaryFromResult(input.analysisResult()) : "이번 달 AI 분석 내역이 없습니다.";
 
         // 최종 DTO 생성 및 반환
         return MonthlyReportDTO.builder()
-                .userName(userInfo.name())
-                .userEmail(userInfo.email())
+                .userName(input.userName())
+                .userEmail(input.userEmail())
                 .reportMonth(reportMonth)
                 .totalSpending(totalSpending)
                 .previousMonthTotalSpending(previousMonthTotalSpending)
@@ -174,74 +206,295 @@ public class ReportServiceImpl implements IReportService {
         return "이번 달 AI 분석 요약이 없습니다.";
     }
 
-    private GoalEntity convertToEntity(GoalDTO dto) {
-        return GoalEntity.builder()
-                .goalId(dto.getGoalId())
-                .userId(dto.getUserId())
-                .goalName(dto.getGoalName())
-                .targetAmount(dto.getTargetAmount())
-                .savedAmount(dto.getSavedAmount())
-                .deadline(dto.getDeadline())
-                .build();
-    }
-
+    /**
+     * 지난 달 리포트는 보관된 HTML 을 그대로 다시 발송하고, 보관본이 없을 때만 새로 생성합니다.
+     */
     @Override
     public void generateAndSendReportForUser(String userId, YearMonth reportMonth) throws Exception {
         log.info("사용자 {}의 리포트 생성 및 발송 시작...", userId);
         try {
-            MonthlyReportDTO reportData = generateMonthlyReportData(userId, reportMonth);
-            String htmlContent = buildReportHtml(reportData);
-
-            MailDTO mail = MailDTO.builder()
-                    .toMail(reportData.getUserEmail())
-                    .title(String.format("[%s] %d년 %d월 월간 소비 리포트",
-                            "SaveMate", reportMonth.getYear(), reportMonth.getMonthValue()))
-                    .contents(htmlContent)
-                    .build();
+            Optional<String> archived = ReportArchiveService.isArchivable(reportMonth)
+                    ? reportArchiveService.findHtml(userId, reportMonth)
+                    : Optional.empty();
+
+            if (archived.isPresent()) {
+                UserInfoDTO user = userInfoService.findByUserId(userId);
+                if (user == null) {
+                    throw new RuntimeException("리포트 대상 사용자를 찾을 수 없습니다: " + userId);
+                }
+                mailService.enqueueMail(buildReportMail(user.email(), reportMonth, archived.get()));
+                log.info("사용자 {}의 보관된 리포트 재발송 요청 완료", userId);
+                return;
+            }
 
-            mailService.doSendMail(mail);
-            log.info("사용자 {}에게 리포트 이메일 발송 완료", userId);
+            MonthlyReportDTO reportData = generateMonthlyReportData(userId, reportMonth);
+            String html = mailTemplateRenderer.renderMonthlyReport(reportData);
+            archive(userId, reportMonth, reportData, html);
+            mailService.enqueueMail(buildReportMail(reportData.getUserEmail(), reportMonth, html));
+            log.info("사용자 {}의 리포트 이메일 발송 요청 완료", userId);
         } catch (Exception e) {
             log.error("사용자 {}의 월간 리포트 생성 또는 발송 중 오류 발생", userId, e);
             throw e; // re-throw the exception to be handled by the caller if necessary
         }
     }
 
+    @Override
+    public String getReportHtml(String userId, YearMonth reportMonth) throws Exception {
+        if (ReportArchiveService.isArchivable(reportMonth)) {
+            Optional<String> archived = reportArchiveService.findHtml(userId, reportMonth);
+            if (archived.isPresent()) {
+                return archived.get();
+            }
+        }
+
+        MonthlyReportDTO reportData = generateMonthlyReportData(userId, reportMonth);
+        String html = mailTemplateRenderer.renderMonthlyReport(reportData);
+        archive(userId, reportMonth, reportData, html);
+        return html;
+    }
+
+    // 끝난 달의 리포트만 보관 (보관 실패는 발송/조회에 영향을 주지 않음)
+    private void archive(String userId, YearMonth reportMonth, MonthlyReportDTO reportData, String html) {
+        if (!ReportArchiveService.isArchivable(reportMonth)) {
+            return;
+        }
+        try {
+            reportArchiveService.save(userId, reportMonth, reportData, html);
+        } catch (Exception e) {
+            log.error("사용자 {}의 {} 리포트 보관 중 오류 발생", userId, reportMonth, e);
+        }
+    }
+
+    /**
+     * 월간 리포트 일괄 발송
+     * 데이터 수집 → HTML 렌더링 → 메일 대기열 등록의 3단계 파이프라인으로 처리합니다.
+     * 각 단계는 별도의 제한된 실행 풀/대기열을 가지며, 다음 단계의 대기열이 가득 차면 앞 단계가 기다립니다.
+     * 실행은 별도 스레드에서 이어지므로 스케줄러 스레드(메일 발송기 등 다른 스케줄 작업과 공유)를 붙잡지 않습니다.
+     */
     @Scheduled(cron = "0 0 22 L * ?") // 매월 말일 22시
     @Override
     public void sendMonthlyReportToAllUsers() {
-        log.info("월간 리포트 발송 스케줄러 시작");
-        YearMonth reportMonth = YearMonth.now(ZoneId.of("Asia/Seoul")).minusMonths(1); // 지난달을 기준으로 리포트 생성
-
-        List<UserInfoEntity> allUsers = null;
+        if (!reportRunning.compareAndSet(false, true)) {
+            log.warn("이전 월간 리포트 발송이 아직 진행 중이므로 이번 실행을 건너뜁니다.");
+            return;
+        }
         try {
-            allUsers = userInfoService.getAllUsers();
+            log.info("월간 리포트 발송 스케줄러 시작");
+            YearMonth reportMonth = YearMonth.now(ZoneId.of("Asia/Seoul")).minusMonths(1); // 지난달을 기준으로 리포트 생성
+
+            List<UserInfoEntity> allUsers = userInfoService.getAllUsers();
+            log.info("{}명의 사용자를 대상으로 리포트 발송을 시작합니다.", allUsers.size());
+
+            ReportRun run = new ReportRun(reportMonth, allUsers.size(), mailQueueCapacity);
+            currentRun = run;
+            coordinatorExecutor.execute(() -> runPipeline(run, allUsers));
         } catch (Exception e) {
             log.error("리포트 발송을 위한 사용자 목록 조회 중 오류 발생", e);
-            return; // 사용자 목록 조회를 실패하면 작업을 중단
+            reportRunning.set(false); // 사용자 목록 조회를 실패하면 작업을 중단
         }
-        log.info("{}명의 사용자를 대상으로 리포트 발송을 시작합니다.", allUsers.size());
+    }
+
+    private void runPipeline(ReportRun run, List<UserInfoEntity> users) {
+        try {
+            Future<?> mailStage = mailExecutor.submit(() -> drainMailQueue(run));
 
-        for (UserInfoEntity user : allUsers) {
             try {
-                generateAndSendReportForUser(user.getUserId(), reportMonth);
-            } catch (Exception e) {
-                // 오류는 generateAndSendReportForUser 내부에서 이미 로깅되었으므로 여기서는 다음 사용자로 넘어갑니다.
+                List<String> userIds = users.stream().map(UserInfoEntity::getUserId).toList();
+                for (int from = 0; from < userIds.size(); from += chunkSize) {
+                    List<String> chunk = userIds.subList(from, Math.min(from + chunkSize, userIds.size()));
+                    run.queued.addAndGet(chunk.size());
+                    submitStage(run, assemblyExecutor, chunk.size(), () -> assembleReports(run, chunk));
+                }
+            } finally {
+                // 이후로는 앞 단계 작업이 모두 끝나면 메일 단계도 종료
+                run.submitted = true;
+            }
+
+            try {
+                mailStage.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                log.error("월간 리포트 메일 등록 단계 오류", e.getCause());
+            }
+            run.finishedAt = LocalDateTime.now();
+
+            ReportRunProgressDTO progress = run.toProgress();
+            log.info("월간 리포트 발송 스케줄러 종료 (대상: {}, 등록: {}, 실패: {}, {}ms)",
+                    progress.total(), progress.sent(), progress.failed(), progress.elapsedMs());
+        } finally {
+            reportRunning.set(false);
+        }
+    }
+
+    @Override
+    public ReportRunProgressDTO getMonthlyReportProgress() {
+        ReportRun run = currentRun;
+        return run == null ? null : run.toProgress();
+    }
+
+    /**
+     * 단계 작업을 제출하고 진행 중인 작업 수를 관리합니다.
+     * 작업이 어떤 이유로 끝나든(Error 포함) 수를 줄이므로, 메일 단계는 건수 집계와 관계없이 종료 시점을 알 수 있습니다.
+     */
+    private void submitStage(ReportRun run, ThreadPoolExecutor executor, int users, Runnable task) {
+        run.pendingTasks.incrementAndGet();
+        try {
+            executor.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    run.pendingTasks.decrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            run.pendingTasks.decrementAndGet();
+            run.failed.addAndGet(users);
+        }
+    }
+
+    // 1단계: 청크 단위 리포트 데이터 일괄 수집
+    private void assembleReports(ReportRun run, List<String> userIds) {
+        Map<String, ReportInputDTO> inputs;
+        try {
+            inputs = reportBatchLoader.load(userIds, run.month);
+        } catch (Throwable e) {
+            log.error("사용자 {}명의 월간 리포트 데이터 수집 중 오류 발생", userIds.size(), e);
+            run.failed.addAndGet(userIds.size());
+            return;
+        }
+        run.failed.addAndGet(userIds.size() - inputs.size()); // 조회 사이에 탈퇴한 사용자 등
+
+        for (ReportInputDTO input : inputs.values()) {
+            MonthlyReportDTO reportData;
+            try {
+                reportData = buildMonthlyReport(input, run.month);
+                run.assembled.incrementAndGet();
+            } catch (Throwable e) {
+                log.error("사용자 {}의 월간 리포트 데이터 가공 중 오류 발생", input.userId(), e);
+                run.failed.incrementAndGet();
+                continue;
             }
+
+            submitStage(run, renderExecutor, 1, () -> renderReport(run, input.userId(), reportData));
         }
+    }
 
-        log.info("월간 리포트 발송 스케줄러 종료");
+    // 2단계: HTML 렌더링 및 보관 후 메일 대기열에 전달 (대기열이 가득 차면 대기)
+    // 이미 보관된 리포트는 다시 렌더링하지 않고 보관본을 그대로 발송
+    private void renderReport(ReportRun run, String userId, MonthlyReportDTO reportData) {
+        try {
+            Optional<String> archived = ReportArchiveService.isArchivable(run.month)
+                    ? reportArchiveService.findHtml(userId, run.month)
+                    : Optional.empty();
+            String html;
+            if (archived.isPresent()) {
+                html = archived.get();
+            } else {
+                html = mailTemplateRenderer.renderMonthlyReport(reportData);
+                archive(userId, run.month, reportData, html);
+            }
+            MailDTO mail = buildReportMail(reportData.getUserEmail(), run.month, html);
+            run.rendered.incrementAndGet();
+            run.mails.put(mail);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            run.failed.incrementAndGet();
+        } catch (Throwable e) {
+            log.error("사용자 {}의 월간 리포트 렌더링 중 오류 발생", userId, e);
+            run.failed.incrementAndGet();
+        }
     }
 
-    private String buildReportHtml(MonthlyReportDTO reportDTO) {
-        Context context = new Context();
-        context.setVariable("report", reportDTO);
+    // 3단계: 렌더링된 메일을 묶어서 Outbox 에 등록 (앞 단계 작업이 모두 끝나고 대기열이 빌 때까지)
+    private void drainMailQueue(ReportRun run) {
+        List<MailDTO> batch = new ArrayList<>(MAIL_BATCH_SIZE);
+        while (true) {
+            // 앞 단계 종료를 먼저 확인해야 그 이전에 넣은 메일이 대기열에서 보임
+            boolean producersDone = run.producersDone();
+            try {
+                MailDTO first = run.mails.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    if (producersDone) {
+                        return;
+                    }
+                    continue;
+                }
+                batch.add(first);
+                run.mails.drainTo(batch, MAIL_BATCH_SIZE - 1);
+                mailService.enqueueMails(batch);
+                run.sent.addAndGet(batch.size());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Throwable e) {
+                log.error("월간 리포트 메일 {}건 등록 실패", batch.size(), e);
+                run.failed.addAndGet(batch.size());
+            }
+            batch.clear();
+        }
+    }
 
-        // 고정된 URL 생성
-        context.setVariable("spendUrl", "https://aifinance.ai.kr/spending/page");
-        context.setVariable("budgetUrl", "https://aifinance.ai.kr/budget/page");
-        context.setVariable("goalUrl", "https://aifinance.ai.kr/goal/page");
+    private MailDTO buildReportMail(String toMail, YearMonth reportMonth, String html) {
+        return MailDTO.builder()
+                .toMail(toMail)
+                .title(String.format("[%s] %d년 %d월 월간 소비 리포트",
+                        "SaveMate", reportMonth.getYear(), reportMonth.getMonthValue()))
+                .contents(html)
+                .build();
+    }
 
-        return templateEngine.process("mail/monthlyReport", context);
+    /**
+     * 월간 리포트 일괄 발송 1회의 진행 상황
+     */
+    private static class ReportRun {
+        final YearMonth month;
+        final long total;
+        final LocalDateTime startedAt = LocalDateTime.now();
+        volatile LocalDateTime finishedAt;
+        final AtomicLong queued = new AtomicLong();
+        final AtomicLong assembled = new AtomicLong();
+        final AtomicLong rendered = new AtomicLong();
+        final AtomicLong sent = new AtomicLong();
+        final AtomicLong failed = new AtomicLong();
+        final BlockingQueue<MailDTO> mails;
+        // 제출되었지만 끝나지 않은 수집/렌더링 작업 수, 모든 청크 제출 여부
+        final AtomicInteger pendingTasks = new AtomicInteger();
+        volatile boolean submitted;
+
+        ReportRun(YearMonth month, long total, int mailQueueCapacity) {
+            this.month = month;
+            this.total = total;
+            this.mails = new ArrayBlockingQueue<>(mailQueueCapacity);
+        }
+
+        boolean producersDone() {
+            return submitted && pendingTasks.get() == 0;
+        }
+
+        ReportRunProgressDTO toProgress() {
+            LocalDateTime end = finishedAt;
+            return new ReportRunProgressDTO(month.toString(), end == null, startedAt, end,
+                    total, queued.get(), assembled.get(), rendered.get(), sent.get(), failed.get(),
+                    Duration.between(startedAt, end == null ? LocalDateTime.now() : end).toMillis());
+        }
+    }
+
+    /**
+     * 대기열이 가득 차면 제출한 스레드가 자리가 날 때까지 기다리는 고정 크기 실행 풀 (단계 간 backpressure)
+     */
+    private static ThreadPoolExecutor blockingExecutor(int threads, int queueCapacity) {
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), (task, executor) -> {
+            if (executor.isShutdown()) {
+                throw new RejectedExecutionException("리포트 파이프라인이 종료되었습니다.");
+            }
+            try {
+                executor.getQueue().put(task);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RejectedExecutionException(e);
+            }
+        });
     }
 }
@@ -0,0 +1,98 @@
+package kopo.newproject.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import kopo.newproject.dto.SpendingFileFormat;
+import kopo.newproject.repository.entity.mongo.SpendingEntity;
+import kopo.newproject.service.ISpendingService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 지출 내역 내보내기 서비스
+ * MongoDB 커서에서 읽은 문서를 바로 출력 스트림에 기록하므로 건수와 관계없이 메모리 사용량이 일정합니다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SpendingExportService {
+
+    private static final int FLUSH_INTERVAL = 100;
+
+    private final ISpendingService spendingService;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * @param from   시작일 (포함, null 이면 제한 없음)
+     * @param to     종료일 (포함, null 이면 제한 없음)
+     * @param gzip   true 이면 gzip 으로 압축하여 기록
+     * @return 기록한 건수
+     */
+    public long export(String userId, LocalDate from, LocalDate to, String category,
+                       SpendingFileFormat format, boolean gzip, OutputStream out) throws IOException {
+        long startTime = System.currentTimeMillis();
+        OutputStream target = gzip ? new GZIPOutputStream(out, 8192) : out;
+
+        if (format == SpendingFileFormat.CSV) {
+            target.write(0xEF); // 엑셀에서 한글이 깨지지 않도록 UTF-8 BOM
+            target.write(0xBB);
+            target.write(0xBF);
+            target.write((String.join(",", SpendingImportService.CSV_COLUMNS) + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+
+        long[] written = {0};
+        spendingService.streamSpendings(userId, from, to, category, spending -> {
+            try {
+                target.write(format == SpendingFileFormat.CSV ? toCsvLine(spending) : toJsonLine(spending));
+                if (++written[0] % FLUSH_INTERVAL == 0) {
+                    target.flush();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        if (target instanceof GZIPOutputStream gz) {
+            gz.finish();
+        }
+        target.flush();
+
+        log.info("Exported {} spending rows for user {} as {} (gzip={}, {}ms)",
+                written[0], userId, format, gzip, System.currentTimeMillis() - startTime);
+        return written[0];
+    }
+
+    private byte[] toJsonLine(SpendingEntity spending) throws IOException {
+        return (objectMapper.writeValueAsString(spending) + "\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    // 가져오기(import) CSV 와 같은 컬럼 순서: name,date,category,amount,description
+    private byte[] toCsvLine(SpendingEntity spending) {
+        String line = csv(spending.getName()) + ","
+                + (spending.getDate() != null ? spending.getDate().toString() : "") + ","
+                + csv(spending.getCategory()) + ","
+                + (spending.getAmount() != null ? spending.getAmount().toPlainString() : "") + ","
+                + csv(spending.getDescription()) + "\n";
+        return line.getBytes(StandardCharsets.UTF_8);
+    }
+
+    // 사용자가 입력한 텍스트 셀 - 스프레드시트에서 수식으로 실행되지 않도록 =, +, -, @, 탭, CR 로 시작하면 ' 를 붙임
+    // 원래 ' 로 시작하는 값에도 붙여, 가져오기에서 앞의 ' 하나만 떼면 원래 값이 되도록 함
+    private static String csv(String value) {
+        if (value == null) return "";
+        if (!value.isEmpty() && SpendingImportService.CSV_ESCAPED_PREFIXES.indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+}
@@ -0,0 +1,341 @@
+package kopo.newproject.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import kopo.newproject.dto.SpendingDelta;
+import kopo.newproject.dto.SpendingFileFormat;
+import kopo.newproject.dto.SpendingImportResultDTO;
+import kopo.newproject.dto.SpendingImportResultDTO.RowError;
+import kopo.newproject.dto.SpendingRequest;
+import kopo.newproject.repository.entity.mongo.SpendingEntity;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+
+/**
+ * CSV / NDJSON 형식의 지출 내역 일괄 등록 서비스
+ * 요청 본문을 한 행씩 읽어 검증하고, 일정 크기의 배치 단위로 unordered bulk insert 합니다.
+ * CSV 는 큰따옴표로 감싼 값 안의 줄바꿈과 내보내기의 수식 방지 ' 를 처리하므로, 내보낸 파일을 그대로 다시 가져올 수 있습니다.
+ * 동시에 진행 중인 배치 수는 MAX_IN_FLIGHT_BATCHES 로 제한됩니다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SpendingImportService {
+
+    private static final int BATCH_SIZE = 500;
+    private static final int MAX_IN_FLIGHT_BATCHES = 4;
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    static final List<String> CSV_COLUMNS = List.of("name", "date", "category", "amount", "description");
+    // 내보내기에서 앞에 ' 를 붙이는 텍스트 셀의 첫 글자 (수식 시작 문자와 ' 자체)
+    static final String CSV_ESCAPED_PREFIXES = "=+-@\t\r'";
+    // 닫히지 않은 따옴표로 파일 전체가 한 행으로 읽히지 않도록 한 행의 최대 길이 제한
+    private static final int MAX_CSV_RECORD_CHARS = 100_000;
+
+    private final MongoTemplate mongoTemplate;
+    private final SpendingRollupService spendingRollupService;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+
+    private final ExecutorService writeExecutor = Executors.newFixedThreadPool(MAX_IN_FLIGHT_BATCHES);
+
+    // 배치 1건의 처리 결과
+    private record BatchResult(long imported, List<RowError> errors) {
+    }
+
+    /**
+     * 행 번호가 가장 앞선 MAX_REPORTED_ERRORS 건만 보관하고 나머지는 개수만 셉니다.
+     * (잘못된 대용량 파일이어도 오류 목록 메모리가 파일 크기에 비례하지 않도록)
+     */
+    private static class ErrorCollector {
+        // 행 번호가 가장 큰 오류가 먼저 나오도록 하여 한도를 넘으면 그것부터 버림
+        private final PriorityQueue<RowError> kept =
+                new PriorityQueue<>(Comparator.comparingLong(RowError::row).reversed());
+        private long count;
+
+        void add(RowError error) {
+            count++;
+            kept.add(error);
+            if (kept.size() > MAX_REPORTED_ERRORS) {
+                kept.poll();
+            }
+        }
+
+        long count() {
+            return count;
+        }
+
+        List<RowError> sorted() {
+            List<RowError> result = new ArrayList<>(kept);
+            result.sort(Comparator.comparingLong(RowError::row));
+            return result;
+        }
+    }
+
+    public SpendingImportResultDTO importSpendings(String userId, InputStream body, SpendingFileFormat format) throws IOException {
+        long startTime = System.currentTimeMillis();
+
+        Semaphore inFlight = new Semaphore(MAX_IN_FLIGHT_BATCHES);
+        List<Future<BatchResult>> futures = new ArrayList<>();
+        ErrorCollector errors = new ErrorCollector();
+        long imported = 0;
+
+        List<SpendingEntity> batch = new ArrayList<>(BATCH_SIZE);
+        List<Long> batchRows = new ArrayList<>(BATCH_SIZE);
+        long rowNo = 0;
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            String line = reader.readLine();
+            if (line != null && line.startsWith("\uFEFF")) {
+                line = line.substring(1); // UTF-8 BOM 제거
+            }
+            if (format == SpendingFileFormat.CSV && line != null) {
+                List<String> header = parseCsvLine(line).stream().map(String::trim).toList();
+                if (!header.equals(CSV_COLUMNS)) {
+                    throw new IllegalArgumentException("CSV 헤더는 " + String.join(",", CSV_COLUMNS) + " 이어야 합니다.");
+                }
+                line = reader.readLine();
+            }
+
+            for (; line != null; line = reader.readLine()) {
+                if (line.isBlank()) continue;
+                rowNo++;
+
+                if (format == SpendingFileFormat.CSV) {
+                    line = readCsvRecord(reader, line);
+                }
+
+                SpendingRequest request;
+                try {
+                    request = format == SpendingFileFormat.CSV ? parseCsvRow(line) : objectMapper.readValue(line, SpendingRequest.class);
+                } catch (Exception e) {
+                    errors.add(new RowError(rowNo, "형식 오류: " + e.getMessage()));
+                    continue;
+                }
+
+                Set<ConstraintViolation<SpendingRequest>> violations = validator.validate(request);
+                if (!violations.isEmpty()) {
+                    errors.add(new RowError(rowNo, violations.stream()
+                            .map(ConstraintViolation::getMessage)
+                            .collect(Collectors.joining(", "))));
+                    continue;
+                }
+
+                batch.add(toEntity(userId, request));
+                batchRows.add(rowNo);
+                if (batch.size() == BATCH_SIZE) {
+                    futures.add(submitBatch(batch, batchRows, inFlight));
+                    imported += collectFinished(futures, errors, false);
+                    batch = new ArrayList<>(BATCH_SIZE);
+                    batchRows = new ArrayList<>(BATCH_SIZE);
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            futures.add(submitBatch(batch, batchRows, inFlight));
+        }
+
+        imported += collectFinished(futures, errors, true);
+        long failed = errors.count();
+
+        log.info("Spending import finished for user {}: {} rows, {} imported, {} failed ({}ms)",
+                userId, rowNo, imported, failed, System.currentTimeMillis() - startTime);
+        return new SpendingImportResultDTO(rowNo, imported, failed, errors.sorted());
+    }
+
+    private Future<BatchResult> submitBatch(List<SpendingEntity> batch, List<Long> batchRows, Semaphore inFlight) {
+        try {
+            inFlight.acquire(); // 진행 중인 배치가 한도에 도달하면 읽기를 멈추고 대기 (backpressure)
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("지출 일괄 등록이 중단되었습니다.", e);
+        }
+        try {
+            return writeExecutor.submit(() -> {
+                try {
+                    return writeBatch(batch, batchRows);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.release();
+            throw e;
+        }
+    }
+
+    // 배치를 unordered bulk insert 하고, 성공한 건만 롤업에 한 번에 반영
+    private BatchResult writeBatch(List<SpendingEntity> batch, List<Long> batchRows) {
+        Set<Integer> failedIndexes = new HashSet<>();
+        List<RowError> errors = new ArrayList<>();
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, SpendingEntity.class);
+        bulk.insert(batch);
+        try {
+            bulk.execute();
+        } catch (BulkOperationException e) {
+            e.getErrors().forEach(error -> {
+                failedIndexes.add(error.getIndex());
+                errors.add(new RowError(batchRows.get(error.getIndex()), "저장 실패: " + error.getMessage()));
+            });
+        } catch (Exception e) {
+            log.error("Bulk insert of {} spending rows failed", batch.size(), e);
+            batchRows.forEach(row -> errors.add(new RowError(row, "저장 실패: " + e.getMessage())));
+            return new BatchResult(0, errors);
+        }
+
+        List<SpendingDelta> deltas = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            if (!failedIndexes.contains(i)) {
+                deltas.add(SpendingRollupService.added(batch.get(i)));
+            }
+        }
+        spendingRollupService.apply(deltas);
+
+        return new BatchResult(deltas.size(), errors);
+    }
+
+    /**
+     * 끝난 배치의 결과를 모아 목록에서 제거합니다. (waitAll 이면 남은 배치가 모두 끝날 때까지 대기)
+     *
+     * @return 모은 배치들의 저장 건수 합계
+     */
+    private long collectFinished(List<Future<BatchResult>> futures, ErrorCollector errors, boolean waitAll) {
+        long imported = 0;
+        for (Iterator<Future<BatchResult>> it = futures.iterator(); it.hasNext(); ) {
+            Future<BatchResult> future = it.next();
+            if (!waitAll && !future.isDone()) {
+                continue;
+            }
+            BatchResult result = awaitBatch(future);
+            imported += result.imported();
+            result.errors().forEach(errors::add);
+            it.remove();
+        }
+        return imported;
+    }
+
+    private BatchResult awaitBatch(Future<BatchResult> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("지출 일괄 등록이 중단되었습니다.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("지출 일괄 등록 중 오류가 발생했습니다.", e.getCause());
+        }
+    }
+
+    private SpendingEntity toEntity(String userId, SpendingRequest request) {
+        return SpendingEntity.builder()
+                .userId(userId)
+                .name(request.getName())
+                .date(request.getDate())
+                .category(request.getCategory())
+                .amount(request.getAmount())
+                .description(request.getDescription())
+                .build();
+    }
+
+    private SpendingRequest parseCsvRow(String line) {
+        List<String> cols = parseCsvLine(line);
+        if (cols.size() != CSV_COLUMNS.size()) {
+            throw new IllegalArgumentException("컬럼 수가 " + CSV_COLUMNS.size() + "개가 아닙니다.");
+        }
+        return SpendingRequest.builder()
+                .name(unescapeText(cols.get(0).trim()))
+                .date(LocalDate.parse(cols.get(1).trim()))
+                .category(unescapeText(cols.get(2).trim()))
+                .amount(new BigDecimal(cols.get(3).trim()))
+                .description(unescapeText(cols.get(4).trim()))
+                .build();
+    }
+
+    // 내보내기에서 수식 실행 방지용으로 붙인 ' 를 제거
+    private static String unescapeText(String value) {
+        if (value.length() > 1 && value.charAt(0) == '\'' && CSV_ESCAPED_PREFIXES.indexOf(value.charAt(1)) >= 0) {
+            return value.substring(1);
+        }
+        return value;
+    }
+
+    // 큰따옴표 안의 줄바꿈은 값의 일부이므로, 따옴표가 닫힐 때까지 다음 줄을 이어 붙여 한 행으로 읽음
+    private static String readCsvRecord(BufferedReader reader, String line) throws IOException {
+        int quotes = countQuotes(line);
+        if (quotes % 2 == 0) {
+            return line;
+        }
+        StringBuilder record = new StringBuilder(line);
+        String next;
+        while (quotes % 2 != 0 && record.length() < MAX_CSV_RECORD_CHARS && (next = reader.readLine()) != null) {
+            record.append('\n').append(next);
+            quotes += countQuotes(next);
+        }
+        return record.toString();
+    }
+
+    private static int countQuotes(String line) {
+        int count = 0;
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) == '"') {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // 큰따옴표로 감싼 값과 "" 이스케이프를 지원하는 단순 CSV 파서
+    private static List<String> parseCsvLine(String line) {
+        List<String> cols = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                cols.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        cols.add(current.toString());
+        return cols;
+    }
+
+    // 진행 중인 배치는 롤업 반영까지 마치도록 잠시 기다린 뒤 종료
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        writeExecutor.shutdown();
+        if (!writeExecutor.awaitTermination(30, TimeUnit.SECONDS)) {
+            log.warn("Spending import batches did not finish before shutdown");
+            writeExecutor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package kopo.newproject.service.impl;
+
+import kopo.newproject.dto.SpendingChangedEvent;
+import kopo.newproject.dto.SpendingDelta;
+import kopo.newproject.repository.entity.mongo.SpendingEntity;
+import kopo.newproject.repository.entity.mongo.SpendingRollupEntity;
+import kopo.newproject.repository.mongo.SpendingRollupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.DateOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * spending_rollup 컬렉션(사용자/연월/카테고리별 지출 합계)을 관리하는 서비스
+ * 지출 원본을 매번 스캔하지 않고 카테고리 수만큼의 문서만 읽어 합계를 계산합니다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SpendingRollupService {
+
+    private static final int REBUILD_CHUNK_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final SpendingRollupRepository spendingRollupRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // 지출 1건이 추가될 때의 증감분
+    public static SpendingDelta added(SpendingEntity spending) {
+        return new SpendingDelta(spending.getUserId(), YearMonth.from(spending.getDate()),
+                normalizeCategory(spending.getCategory()), amountOf(spending), 1);
+    }
+
+    // 지출 1건이 삭제될 때의 증감분
+    public static SpendingDelta removed(SpendingEntity spending) {
+        return new SpendingDelta(spending.getUserId(), YearMonth.from(spending.getDate()),
+                normalizeCategory(spending.getCategory()), amountOf(spending).negate(), -1);
+    }
+
+    /**
+     * 증감분을 원자적 $inc 로 롤업 컬렉션에 반영합니다.
+     * 같은 키의 증감분은 하나로 합친 뒤 한 번의 bulk write 로 처리하고, 반영 후 SpendingChangedEvent 를 발행합니다.
+     */
+    public void apply(Collection<SpendingDelta> deltas) {
+        Map<String, SpendingDelta> merged = new LinkedHashMap<>();
+        for (SpendingDelta d : deltas) {
+            String id = SpendingRollupEntity.toId(d.userId(), d.yearMonth().toString(), d.category());
+            merged.merge(id, d, (a, b) -> new SpendingDelta(a.userId(), a.yearMonth(), a.category(),
+                    a.amount().add(b.amount()), a.countDelta() + b.countDelta()));
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, SpendingRollupEntity.class);
+        List<String> touchedIds = new ArrayList<>();
+        List<SpendingDelta> applied = new ArrayList<>();
+        merged.forEach((id, d) -> {
+            if (d.countDelta() == 0 && d.amount().signum() == 0) {
+                return; // 수정 전후가 동일한 경우
+            }
+            applied.add(d);
+            Update update = new Update()
+                    .setOnInsert("userId", d.userId())
+                    .setOnInsert("yearMonth", d.yearMonth().toString())
+                    .setOnInsert("category", d.category())
+                    .inc("total", d.amount())
+                    .inc("count", d.countDelta());
+            bulk.upsert(Query.query(Criteria.where("_id").is(id)), update);
+            touchedIds.add(id);
+        });
+
+        if (touchedIds.isEmpty()) {
+            return;
+        }
+        bulk.execute();
+
+        // 지출 건수가 0이 된 롤업 문서는 정리
+        mongoTemplate.remove(Query.query(Criteria.where("_id").in(touchedIds).and("count").lte(0)), SpendingRollupEntity.class);
+
+        // 소비 비교 그룹 통계 등 후속 집계에 증감분 전달
+        eventPublisher.publishEvent(new SpendingChangedEvent(applied));
+    }
+
+    // 특정 월의 카테고리별 합계
+    public Map<String, BigDecimal> getCategoryTotals(String userId, YearMonth month) {
+        Map<String, BigDecimal> result = new HashMap<>();
+        for (SpendingRollupEntity r : spendingRollupRepository.findByUserIdAndYearMonth(userId, month.toString())) {
+            result.merge(r.getCategory(), Optional.ofNullable(r.getTotal()).orElse(BigDecimal.ZERO), BigDecimal::add);
+        }
+        return result;
+    }
+
+    // 특정 월의 합계 (category 가 null 이면 전체 카테고리)
+    public BigDecimal getMonthlyTotal(String userId, YearMonth month, String category) {
+        if (category != null) {
+            return spendingRollupRepository.findById(SpendingRollupEntity.toId(userId, month.toString(), category))
+                    .map(SpendingRollupEntity::getTotal)
+                    .orElse(BigDecimal.ZERO);
+        }
+        return getCategoryTotals(userId, month).values().stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    // Helper class for aggregation result
+    private static class MonthCategoryTotal {
+        private String yearMonth;
+        private String category;
+        private BigDecimal total;
+
+        public String getYearMonth() { return yearMonth; }
+        public void setYearMonth(String yearMonth) { this.yearMonth = yearMonth; }
+        public String getCategory() { return category; }
+        public void setCategory(String category) { this.category = category; }
+        public BigDecimal getTotal() { return total; }
+        public void setTotal(BigDecimal total) { this.total = total; }
+    }
+
+    /**
+     * 여러 달의 카테고리별 합계를 한 번의 집계로 조회합니다.
+     *
+     * @return 연월("yyyy-MM") → (카테고리 → 합계)
+     */
+    public Map<String, Map<String, BigDecimal>> getCategoryTotalsByMonth(String userId, Collection<YearMonth> months) {
+        Map<String, Map<String, BigDecimal>> result = new HashMap<>();
+        if (months.isEmpty()) {
+            return result;
+        }
+
+        List<String> monthKeys = months.stream().map(YearMonth::toString).distinct().toList();
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("userId").is(userId).and("yearMonth").in(monthKeys)),
+                Aggregation.group("yearMonth", "category").sum("total").as("total"),
+                Aggregation.project("total")
+                        .and("_id.yearMonth").as("yearMonth")
+                        .and("_id.category").as("category")
+                        .andExclude("_id")
+        );
+
+        for (MonthCategoryTotal row : mongoTemplate.aggregate(aggregation, SpendingRollupEntity.class, MonthCategoryTotal.class)) {
+            result.computeIfAbsent(row.getYearMonth(), k -> new HashMap<>())
+                    .merge(row.getCategory(), Optional.ofNullable(row.getTotal()).orElse(BigDecimal.ZERO), BigDecimal::add);
+        }
+        return result;
+    }
+
+    /**
+     * 여러 사용자의 특정 월 카테고리별 합계를 한 번의 조회로 가져옵니다.
+     * 롤업 문서가 (사용자, 연월, 카테고리)당 하나이므로 별도 그룹핑 없이 (userId, yearMonth) 인덱스로 읽습니다.
+     *
+     * @return 사용자 ID → (카테고리 → 합계)
+     */
+    public Map<String, Map<String, BigDecimal>> getCategoryTotalsByUsers(Collection<String> userIds, YearMonth month) {
+        Map<String, Map<String, BigDecimal>> result = new HashMap<>();
+        getCategoryTotalsByUsersAndMonths(userIds, List.of(month))
+                .forEach((userId, byMonth) -> result.put(userId, byMonth.getOrDefault(month.toString(), new HashMap<>())));
+        return result;
+    }
+
+    /**
+     * 여러 사용자의 여러 달 카테고리별 합계를 한 번의 조회로 가져옵니다.
+     *
+     * @return 사용자 ID → 연월("yyyy-MM") → (카테고리 → 합계)
+     */
+    public Map<String, Map<String, Map<String, BigDecimal>>> getCategoryTotalsByUsersAndMonths(Collection<String> userIds,
+                                                                                             Collection<YearMonth> months) {
+        Map<String, Map<String, Map<String, BigDecimal>>> result = new HashMap<>();
+        if (userIds.isEmpty() || months.isEmpty()) {
+            return result;
+        }
+
+        List<String> monthKeys = months.stream().map(YearMonth::toString).distinct().toList();
+        Query query = Query.query(Criteria.where("userId").in(userIds).and("yearMonth").in(monthKeys));
+        for (SpendingRollupEntity r : mongoTemplate.find(query, SpendingRollupEntity.class)) {
+            result.computeIfAbsent(r.getUserId(), k -> new HashMap<>())
+                    .computeIfAbsent(r.getYearMonth(), k -> new HashMap<>())
+                    .merge(r.getCategory(), Optional.ofNullable(r.getTotal()).orElse(BigDecimal.ZERO), BigDecimal::add);
+        }
+        return result;
+    }
+
+    /**
+     * 롤업 컬렉션이 비어 있으면 기존 지출 원본으로부터 한 번 생성합니다.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initializeIfEmpty() {
+        if (mongoTemplate.estimatedCount(SpendingRollupEntity.class) == 0
+                && mongoTemplate.estimatedCount(SpendingEntity.class) > 0) {
+            log.info("spending_rollup is empty. Rebuilding from spending collection.");
+            rebuildAll();
+        }
+    }
+
+    /**
+     * spending 원본 전체를 (사용자, 연월, 카테고리)로 집계하여 롤업 컬렉션을 다시 만듭니다.
+     */
+    public void rebuildAll() {
+        long startTime = System.currentTimeMillis();
+
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.project("userId", "category", "amount")
+                        .and(DateOperators.DateToString.dateOf("date").toString("%Y-%m")
+                                .withTimezone(DateOperators.Timezone.valueOf(ZoneId.systemDefault().getId())))
+                        .as("yearMonth"),
+                Aggregation.group("userId", "yearMonth", "category")
+                        .sum("amount").as("total")
+                        .count().as("count"),
+                Aggregation.project("total", "count")
+                        .and("_id.userId").as("userId")
+                        .and("_id.yearMonth").as("yearMonth")
+                        .and("_id.category").as("category")
+                        .andExclude("_id")
+        );
+
+        mongoTemplate.remove(new Query(), SpendingRollupEntity.class);
+
+        long written = 0;
+        List<SpendingRollupEntity> chunk = new ArrayList<>(REBUILD_CHUNK_SIZE);
+        try (Stream<SpendingRollupEntity> rows = mongoTemplate.aggregateStream(aggregation, SpendingEntity.class, SpendingRollupEntity.class)) {
+            Iterator<SpendingRollupEntity> it = rows.iterator();
+            while (it.hasNext()) {
+                SpendingRollupEntity row = it.next();
+                row.setCategory(normalizeCategory(row.getCategory()));
+                row.setId(SpendingRollupEntity.toId(row.getUserId(), row.getYearMonth(), row.getCategory()));
+                chunk.add(row);
+                if (chunk.size() == REBUILD_CHUNK_SIZE) {
+                    written += insertChunk(chunk);
+                }
+            }
+        }
+        written += insertChunk(chunk);
+
+        log.info("Rebuilt spending_rollup with {} documents ({}ms)", written, System.currentTimeMillis() - startTime);
+    }
+
+    private long insertChunk(List<SpendingRollupEntity> chunk) {
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, SpendingRollupEntity.class);
+        bulk.insert(chunk);
+        bulk.execute();
+        int size = chunk.size();
+        chunk.clear();
+        return size;
+    }
+
+    private static String normalizeCategory(String category) {
+        return category == null ? "" : category;
+    }
+
+    private static BigDecimal amountOf(SpendingEntity spending) {
+        return Optional.ofNullable(spending.getAmount()).orElse(BigDecimal.ZERO);
+    }
+}
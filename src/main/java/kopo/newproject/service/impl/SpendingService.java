@@ -1,5 +1,8 @@
 package kopo.newproject.service.impl;
 
+import kopo.newproject.dto.BudgetUsageKey;
+import kopo.newproject.dto.SpendingDelta;
+import kopo.newproject.dto.SpendingPageDTO;
 import kopo.newproject.dto.SpendingRequest;
 import kopo.newproject.dto.SpendingTotalDTO;
 import kopo.newproject.repository.entity.mongo.SpendingEntity;
@@ -11,19 +14,33 @@ import org.springframework.stereotype.Service;
 
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.aggregation.DateOperators;
 import org.springframework.data.mongodb.core.aggregation.MatchOperation;
 import org.springframework.data.mongodb.core.aggregation.GroupOperation;
+import org.springframework.data.mongodb.core.aggregation.ProjectionOperation;
 import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service("SpendingService")
 @RequiredArgsConstructor
@@ -31,6 +48,10 @@ public class SpendingService implements ISpendingService {
 
     private final SpendingRepository spendingRepository;
     private final MongoTemplate mongoTemplate; // MongoTemplate 주입
+    private final SpendingRollupService spendingRollupService; // 월간 합계 롤업
+
+    private static final int MAX_PAGE_SIZE = 100; // 페이지 크기 서버 상한
+    private static final int STREAM_BATCH_SIZE = 500;
 
     // 지출 내역 저장
     @Override
@@ -44,7 +65,9 @@ public class SpendingService implements ISpendingService {
                 .description(request.getDescription())
                 .build();
 
-        return spendingRepository.save(entity);
+        SpendingEntity saved = spendingRepository.save(entity);
+        spendingRollupService.apply(List.of(SpendingRollupService.added(saved)));
+        return saved;
     }
 
     @Override
@@ -78,6 +101,78 @@ public class SpendingService implements ISpendingService {
     }
 
 
+    @Override
+    public SpendingPageDTO getSpendingPage(String userId, String category, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+
+        Criteria criteria = Criteria.where("userId").is(userId);
+        if (category != null) {
+            criteria.and("category").is(category);
+        }
+        if (cursor != null && !cursor.isBlank()) {
+            String[] position = decodeCursor(cursor);
+            LocalDate lastDate = LocalDate.parse(position[0]);
+            ObjectId lastId = new ObjectId(position[1]);
+            // (date, _id) 가 마지막 항목보다 작은 문서만 조회
+            criteria.orOperator(
+                    Criteria.where("date").lt(lastDate),
+                    Criteria.where("date").is(lastDate).and("_id").lt(lastId)
+            );
+        }
+
+        Query query = Query.query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, "date").and(Sort.by(Sort.Direction.DESC, "_id")))
+                .limit(pageSize + 1); // 다음 페이지 존재 여부 확인용으로 1건 더 조회
+
+        List<SpendingEntity> rows = new ArrayList<>(mongoTemplate.find(query, SpendingEntity.class));
+        boolean hasNext = rows.size() > pageSize;
+        if (hasNext) {
+            rows = rows.subList(0, pageSize);
+        }
+        String nextCursor = hasNext ? encodeCursor(rows.get(rows.size() - 1)) : null;
+        return new SpendingPageDTO(rows, nextCursor, hasNext);
+    }
+
+    @Override
+    public void streamSpendings(String userId, LocalDate from, LocalDate to, String category, Consumer<SpendingEntity> consumer) {
+        Criteria criteria = Criteria.where("userId").is(userId);
+        if (from != null || to != null) {
+            Criteria dateCriteria = criteria.and("date");
+            if (from != null) dateCriteria.gte(from);
+            if (to != null) dateCriteria.lt(to.plusDays(1));
+        }
+        if (category != null) {
+            criteria.and("category").is(category);
+        }
+
+        Query query = Query.query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, "date").and(Sort.by(Sort.Direction.DESC, "_id")))
+                .cursorBatchSize(STREAM_BATCH_SIZE);
+
+        try (Stream<SpendingEntity> stream = mongoTemplate.stream(query, SpendingEntity.class)) {
+            stream.forEach(consumer);
+        }
+    }
+
+    // 커서 = base64url("yyyy-MM-dd|ObjectId")
+    private static String encodeCursor(SpendingEntity last) {
+        String raw = last.getDate() + "|" + last.getId().toHexString();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor) {
+        String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        String[] parts = raw.split("\\|");
+        if (parts.length != 2 || !ObjectId.isValid(parts[1])) {
+            throw new IllegalArgumentException("잘못된 커서입니다.");
+        }
+        try {
+            LocalDate.parse(parts[0]);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("잘못된 커서입니다.", e);
+        }
+        return parts;
+    }
 
     //지출내역 삭제
     @Override
@@ -88,6 +183,7 @@ public class SpendingService implements ISpendingService {
                     .filter(spending -> spending.getUserId().equals(userId))
                     .map(spending -> {
                         spendingRepository.deleteById(objectId);
+                        spendingRollupService.apply(List.of(SpendingRollupService.removed(spending)));
                         return true;
                     })
                     .orElse(false);
@@ -104,12 +200,14 @@ public class SpendingService implements ISpendingService {
             Optional<SpendingEntity> spending = spendingRepository.findById(objectId);
             if (spending.isPresent() && spending.get().getUserId().equals(userId)) {
                 SpendingEntity entity = spending.get();
+                SpendingDelta before = SpendingRollupService.removed(entity); // 날짜/카테고리 변경 시 이전 월·카테고리에서 차감
                 entity.setName(request.getName());
                 entity.setDate(request.getDate());
                 entity.setCategory(request.getCategory());
                 entity.setAmount(request.getAmount());
                 entity.setDescription(request.getDescription());
                 spendingRepository.save(entity);
+                spendingRollupService.apply(List.of(before, SpendingRollupService.added(entity)));
 
                 return true;
             }
@@ -119,89 +217,94 @@ public class SpendingService implements ISpendingService {
         return false;
     }
 
-    //카테고리별 월간 사용액 합산
+    //카테고리별 월간 사용액 합산 (롤업 기준)
     @Override
     public BigDecimal calculateMonthlySpendingSum(String userId, int year, int month, String category) {
-        LocalDate startOfMonth = LocalDate.of(year, month, 1);
-        LocalDate endOfMonth = startOfMonth.plusMonths(1);
+        return spendingRollupService.getMonthlyTotal(userId, YearMonth.of(year, month), category);
+    }
 
-        SpendingTotalDTO result;
-        if (category != null) {
-            result = spendingRepository.sumAmountByDateBetweenAndCategory(userId, startOfMonth, endOfMonth, category);
-        } else {
-            result = spendingRepository.sumAmountByDateBetween(userId, startOfMonth, endOfMonth);
+    @Override
+    public Map<BudgetUsageKey, BigDecimal> calculateMonthlySpendingSums(String userId, Collection<BudgetUsageKey> keys) {
+        Set<YearMonth> months = keys.stream()
+                .map(k -> YearMonth.of(k.year(), k.month()))
+                .collect(Collectors.toSet());
+        Map<String, Map<String, BigDecimal>> totalsByMonth = spendingRollupService.getCategoryTotalsByMonth(userId, months);
+
+        Map<BudgetUsageKey, BigDecimal> result = new HashMap<>();
+        for (BudgetUsageKey key : keys) {
+            Map<String, BigDecimal> categoryTotals = totalsByMonth.getOrDefault(
+                    YearMonth.of(key.year(), key.month()).toString(), Map.of());
+            BigDecimal used = key.category() != null
+                    ? categoryTotals.getOrDefault(key.category(), BigDecimal.ZERO)
+                    : categoryTotals.values().stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+            result.put(key, used);
         }
-        return result != null ? result.total() : BigDecimal.ZERO;
+        return result;
     }
 
     @Override
-    public Map<String, Integer> getTotalAmountGroupedByCategory(String userId, YearMonth month) {
-        LocalDate startOfMonth = month.atDay(1);
-        LocalDate endOfMonth = month.atEndOfMonth();
-
-        List<SpendingEntity> spendings = spendingRepository.findByUserIdAndDateBetween(userId, startOfMonth, endOfMonth);
+    public Map<String, Map<String, BigDecimal>> getCategoryTotalsByUsers(Collection<String> userIds, YearMonth month) {
+        return spendingRollupService.getCategoryTotalsByUsers(userIds, month);
+    }
 
+    @Override
+    public Map<String, Integer> getTotalAmountGroupedByCategory(String userId, YearMonth month) {
         Map<String, Integer> result = new HashMap<>();
-        for (SpendingEntity s : spendings) {
-            String category = s.getCategory();
-            int amount = s.getAmount().intValue(); // ✅ BigDecimal → int 변환
-            result.put(category, result.getOrDefault(category, 0) + amount);
-        }
+        spendingRollupService.getCategoryTotals(userId, month)
+                .forEach((category, total) -> result.put(category, total.intValue())); // ✅ BigDecimal → int 변환
         return result;
     }
 
 
     @Override
-    public Map<String, Integer> getTotalSpendingByMonth(String userId, YearMonth from, YearMonth to) {
-        List<SpendingEntity> allSpendings = spendingRepository.findByUserId(userId);
-
-        Map<String, Integer> result = new HashMap<>();
-        allSpendings.stream()
-                .filter(s -> {
-                    YearMonth spendingMonth = YearMonth.from(s.getDate());
-                    return !spendingMonth.isBefore(from) && !spendingMonth.isAfter(to);
-                })
-                .forEach(s -> {
-                    String monthKey = YearMonth.from(s.getDate()).toString(); // ex) "2025-03"
-                    int amount = s.getAmount().intValue(); // ✅ BigDecimal → int 변환
-                    result.put(monthKey, result.getOrDefault(monthKey, 0) + amount);
-                });
-        return result;
+    public Map<String, Long> getTotalSpendingByMonth(String userId, YearMonth from, YearMonth to) {
+        return getSpendingSeries(userId, from.atDay(1), to.atEndOfMonth(), Granularity.MONTH);
     }
 
     // Helper class for aggregation result
-    private static class CategorySpending {
-        private String category;
+    private static class PeriodSpending {
+        private String id; // 집계 구간 키 (예: "2025-03")
         private BigDecimal total;
 
-        // Getters and setters
-        public String getCategory() { return category; }
-        public void setCategory(String category) { this.category = category; }
+        public String getId() { return id; }
+        public void setId(String id) { this.id = id; }
         public BigDecimal getTotal() { return total; }
         public void setTotal(BigDecimal total) { this.total = total; }
     }
 
     @Override
-    public Map<String, BigDecimal> getSpendingByCategory(String userId, YearMonth reportMonth) throws Exception {
-        LocalDate startOfMonth = reportMonth.atDay(1);
-        LocalDate endOfMonth = reportMonth.atEndOfMonth().plusDays(1);
-
+    public Map<String, Long> getSpendingSeries(String userId, LocalDate from, LocalDate to, Granularity granularity) {
         MatchOperation matchStage = Aggregation.match(
                 new Criteria("userId").is(userId)
-                        .and("date").gte(startOfMonth).lt(endOfMonth)
-                        .and("category").nin(null, "") // 카테고리가 null이거나 빈 문자열이 아닌 경우만
+                        .and("date").gte(from).lt(to.plusDays(1))
         );
-        GroupOperation groupStage = Aggregation.group("category")
+        // LocalDate 는 시스템 시간대 자정으로 저장되므로 같은 시간대로 구간 키를 만든다
+        ProjectionOperation projectStage = Aggregation.project("amount")
+                .and(DateOperators.DateToString.dateOf("date").toString(granularity.getDateFormat())
+                        .withTimezone(DateOperators.Timezone.valueOf(ZoneId.systemDefault().getId())))
+                .as("period");
+        GroupOperation groupStage = Aggregation.group("period")
                 .sum("amount").as("total");
 
-        Aggregation aggregation = Aggregation.newAggregation(matchStage, groupStage);
+        Aggregation aggregation = Aggregation.newAggregation(matchStage, projectStage, groupStage,
+                Aggregation.sort(Sort.Direction.ASC, "_id"));
 
-        AggregationResults<CategorySpending> results = mongoTemplate.aggregate(
-                aggregation, SpendingEntity.class, CategorySpending.class
+        AggregationResults<PeriodSpending> results = mongoTemplate.aggregate(
+                aggregation, SpendingEntity.class, PeriodSpending.class
         );
 
-        return results.getMappedResults().stream()
-                .collect(Collectors.toMap(CategorySpending::getCategory, CategorySpending::getTotal, (existing, replacement) -> existing.add(replacement))); // 중복 키 발생 시 값 합치기
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (PeriodSpending row : results.getMappedResults()) {
+            result.put(row.getId(), row.getTotal() != null ? row.getTotal().longValue() : 0L);
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String, BigDecimal> getSpendingByCategory(String userId, YearMonth reportMonth) throws Exception {
+        Map<String, BigDecimal> result = spendingRollupService.getCategoryTotals(userId, reportMonth);
+        result.remove(""); // 카테고리가 비어 있는 지출은 제외
+        return result;
     }
 
 
@@ -0,0 +1,79 @@
+package kopo.newproject.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 사용자가 입력한 값(카테고리명 등)을 MongoDB 문서의 필드명/맵 키로 쓰기 위한 인코딩 유틸리티
+ * 필드 경로에서 '.' 은 하위 문서 구분자, '$' 로 시작하면 연산자로 해석되므로 %, ., $ 를 %XX 형태로 바꿉니다.
+ */
+public class MongoKeyUtil {
+
+    /**
+     * 문서 키로 안전한 문자열로 변환합니다. (%, ., $ 이외의 문자는 그대로)
+     */
+    public static String encode(String key) {
+        if (key.indexOf('%') < 0 && key.indexOf('.') < 0 && key.indexOf('$') < 0) {
+            return key;
+        }
+        StringBuilder sb = new StringBuilder(key.length() + 8);
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            switch (c) {
+                case '%' -> sb.append("%25");
+                case '.' -> sb.append("%2E");
+                case '$' -> sb.append("%24");
+                default -> sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * encode 의 역변환
+     */
+    public static String decode(String key) {
+        if (key.indexOf('%') < 0) {
+            return key;
+        }
+        StringBuilder sb = new StringBuilder(key.length());
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (c == '%' && i + 2 < key.length()) {
+                String code = key.substring(i + 1, i + 3);
+                switch (code) {
+                    case "25" -> { sb.append('%'); i += 2; continue; }
+                    case "2E" -> { sb.append('.'); i += 2; continue; }
+                    case "24" -> { sb.append('$'); i += 2; continue; }
+                    default -> { }
+                }
+            }
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 맵의 키를 모두 encode 한 새 맵을 반환합니다. (null 이면 null)
+     */
+    public static <V> Map<String, V> encodeKeys(Map<String, V> map) {
+        if (map == null) {
+            return null;
+        }
+        Map<String, V> result = new LinkedHashMap<>();
+        map.forEach((key, value) -> result.put(encode(key), value));
+        return result;
+    }
+
+    /**
+     * 맵의 키를 모두 decode 한 새 맵을 반환합니다. (null 이면 null)
+     */
+    public static <V> Map<String, V> decodeKeys(Map<String, V> map) {
+        if (map == null) {
+            return null;
+        }
+        Map<String, V> result = new LinkedHashMap<>();
+        map.forEach((key, value) -> result.put(decode(key), value));
+        return result;
+    }
+}
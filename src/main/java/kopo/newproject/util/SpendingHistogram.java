@@ -0,0 +1,109 @@
+package kopo.newproject.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 금액 분포를 고정된 로그 구간(버킷)별 인원수로 표현하는 히스토그램 유틸리티
+ * 버킷 경계가 고정되어 있어 구간별 개수를 더하기만 하면 병합되며, 분위수 오차는 버킷 폭(약 10%) 이내입니다.
+ * MongoDB 문서에 그대로 저장할 수 있도록 버킷 번호는 문자열 키로 다룹니다.
+ */
+public class SpendingHistogram {
+
+    private static final double MIN_AMOUNT = 1000; // 버킷 0: 1,000원 미만
+    private static final double GROWTH = 1.1; // 버킷마다 경계가 10%씩 증가
+    private static final int MAX_BUCKET = 250; // 약 2.2e13원 이상은 마지막 버킷
+
+    /**
+     * 금액이 속하는 버킷 번호를 반환합니다.
+     */
+    public static int bucketOf(BigDecimal amount) {
+        double value = amount.doubleValue();
+        if (value < MIN_AMOUNT) {
+            return 0;
+        }
+        int bucket = (int) Math.floor(Math.log(value / MIN_AMOUNT) / Math.log(GROWTH)) + 1;
+        return Math.min(bucket, MAX_BUCKET);
+    }
+
+    /**
+     * 히스토그램에 금액을 count 만큼 반영합니다. (음수면 제거)
+     */
+    public static void add(Map<String, Long> histogram, BigDecimal amount, long count) {
+        histogram.merge(String.valueOf(bucketOf(amount)), count, Long::sum);
+    }
+
+    /**
+     * 분위수(q: 0~1)를 버킷 내 선형 보간으로 추정합니다.
+     *
+     * @return 데이터가 없으면 null
+     */
+    public static BigDecimal quantile(Map<String, Long> histogram, double q) {
+        TreeMap<Integer, Long> buckets = toBuckets(histogram);
+        long total = buckets.values().stream().mapToLong(Long::longValue).sum();
+        if (total == 0) {
+            return null;
+        }
+
+        double target = q * total;
+        long cumulative = 0;
+        for (Map.Entry<Integer, Long> entry : buckets.entrySet()) {
+            long count = entry.getValue();
+            if (cumulative + count >= target) {
+                double fraction = (target - cumulative) / count;
+                double lower = lowerBound(entry.getKey());
+                double upper = upperBound(entry.getKey());
+                return BigDecimal.valueOf(lower + fraction * (upper - lower)).setScale(0, RoundingMode.HALF_UP);
+            }
+            cumulative += count;
+        }
+        return BigDecimal.valueOf(upperBound(buckets.lastKey())).setScale(0, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * 주어진 금액보다 적게 쓴 사용자의 비율(0~100, 백분위)을 추정합니다.
+     *
+     * @return 데이터가 없으면 null
+     */
+    public static Double percentileRank(Map<String, Long> histogram, BigDecimal amount) {
+        TreeMap<Integer, Long> buckets = toBuckets(histogram);
+        long total = buckets.values().stream().mapToLong(Long::longValue).sum();
+        if (total == 0) {
+            return null;
+        }
+
+        int bucket = bucketOf(amount);
+        double below = buckets.headMap(bucket).values().stream().mapToLong(Long::longValue).sum();
+        long inBucket = buckets.getOrDefault(bucket, 0L);
+        if (inBucket > 0) {
+            double lower = lowerBound(bucket);
+            double upper = upperBound(bucket);
+            double fraction = Math.min(1.0, Math.max(0.0, (amount.doubleValue() - lower) / (upper - lower)));
+            below += inBucket * fraction;
+        }
+        return Math.round(below / total * 1000) / 10.0;
+    }
+
+    // 증분 갱신 중 일시적으로 0 이하가 된 버킷은 제외
+    private static TreeMap<Integer, Long> toBuckets(Map<String, Long> histogram) {
+        TreeMap<Integer, Long> buckets = new TreeMap<>();
+        if (histogram != null) {
+            histogram.forEach((key, count) -> {
+                if (count != null && count > 0) {
+                    buckets.put(Integer.parseInt(key), count);
+                }
+            });
+        }
+        return buckets;
+    }
+
+    private static double lowerBound(int bucket) {
+        return bucket == 0 ? 0 : MIN_AMOUNT * Math.pow(GROWTH, bucket - 1);
+    }
+
+    private static double upperBound(int bucket) {
+        return MIN_AMOUNT * Math.pow(GROWTH, bucket);
+    }
+}
@@ -221,7 +221,8 @@ function fetchLatestAnalysis() {
         .finally(() => toggleLoading(false));
 }
 
-function requestAnalysis(event) {
+// force: true 이면 같은 입력의 기존 분석 결과가 있어도 다시 분석
+function requestAnalysis(event, force = false) {
     event.preventDefault();
 
     if (!confirm("AI 분석은 약 20초 정도 소요될 수 있습니다. 계속하시겠습니까?")) {
@@ -238,7 +239,11 @@ function requestAnalysis(event) {
     closeNotification();
     showEmptyState(false);
 
-    fetch(`/api/analysis/${month}`, {
+    requestAnalysisJob(month, force);
+}
+
+function requestAnalysisJob(month, force) {
+    fetch(`/api/analysis/${month}?force=${force}`, {
         method: 'POST',
         headers: {
             'Content-Type': 'application/json',
@@ -250,12 +255,24 @@ function requestAnalysis(event) {
                 renderUnauthorized('analysisResult', 'AI 분석을 요청하려면 로그인이 필요합니다.');
                 return null; // 에러 처리 후 다음 then 블록으로 넘어가지 않도록 null 반환
             }
+            if (res.status === 429) {
+                // 요청 빈도 또는 월간 한도 초과
+                const retryAfter = res.headers.get('Retry-After');
+                return res.text().then(text => {
+                    showToast('error', '요청 제한', `${text}${retryAfter ? ` (${formatRetryAfter(retryAfter)} 후 다시 시도)` : ''}`);
+                    showEmptyState(true);
+                    return null;
+                });
+            }
+            if (res.status === 503) throw new Error("분석 요청이 많습니다. 잠시 후 다시 시도해주세요.");
             if (!res.ok) throw new Error("분석 요청 실패");
             return res.json();
         })
-        .then(json => {
-            if (!json) return; // 401/403 처리로 null이 넘어온 경우
-            renderAnalysisResult(json);
+        .then(job => job ? waitForAnalysisJob(job.id) : null) // 202 로 받은 작업이 끝날 때까지 대기
+        .then(job => {
+            if (!job) return; // 401/403 처리로 null이 넘어온 경우
+            if (job.status !== 'SUCCEEDED') throw new Error(job.error || "분석 실패");
+            renderAnalysisResult(JSON.parse(job.result));
             showToast('success', '분석 완료', '소비 분석이 완료되었습니다.');
         })
         .catch(err => {
@@ -267,6 +284,80 @@ function requestAnalysis(event) {
         .finally(() => toggleLoading(false));
 }
 
+// Retry-After(초)를 읽기 쉬운 문자열로 변환
+function formatRetryAfter(seconds) {
+    const s = parseInt(seconds, 10);
+    if (s >= 86400) return `${Math.ceil(s / 86400)}일`;
+    if (s >= 3600) return `${Math.ceil(s / 3600)}시간`;
+    if (s >= 60) return `${Math.ceil(s / 60)}분`;
+    return `${s}초`;
+}
+
+/**
+ * 분석 작업 완료를 기다리는 함수
+ * SSE(token/complete 이벤트)로 생성 중인 내용을 표시하며 결과를 받고, SSE 연결이 실패하면 2초 간격 폴링으로 전환합니다.
+ */
+function waitForAnalysisJob(jobId) {
+    return new Promise((resolve, reject) => {
+        let settled = false;
+        const finish = job => {
+            if (settled) return;
+            settled = true;
+            resolve(job);
+        };
+
+        const poll = () => {
+            fetch(`/api/analysis/jobs/${jobId}`, { headers: { [csrfHeader]: csrfToken } })
+                .then(res => {
+                    if (!res.ok) throw new Error("분석 작업 조회 실패");
+                    return res.json();
+                })
+                .then(job => {
+                    if (job.status === 'SUCCEEDED' || job.status === 'FAILED') {
+                        finish(job);
+                    } else if (!settled) {
+                        setTimeout(poll, 2000);
+                    }
+                })
+                .catch(err => {
+                    if (!settled) {
+                        settled = true;
+                        reject(err);
+                    }
+                });
+        };
+
+        if (!window.EventSource) {
+            poll();
+            return;
+        }
+
+        const container = document.getElementById('analysisResult');
+        let preview = null;
+        const source = new EventSource(`/api/analysis/jobs/${jobId}/stream`);
+        source.addEventListener('token', e => {
+            if (!preview) {
+                toggleLoading(false);
+                container.innerHTML = '<pre class="p-4 bg-gray-50 rounded-lg text-gray-600 whitespace-pre-wrap text-sm"></pre>';
+                preview = container.querySelector('pre');
+            }
+            preview.textContent += JSON.parse(e.data);
+        });
+        source.addEventListener('reset', () => {
+            // 서버가 분석을 재시도하는 경우 이전 시도의 내용을 지움
+            if (preview) preview.textContent = '';
+        });
+        source.addEventListener('complete', e => {
+            source.close();
+            finish(JSON.parse(e.data));
+        });
+        source.onerror = () => {
+            source.close();
+            if (!settled) poll();
+        };
+    });
+}
+
 function deleteAnalysis(event) {
     event.preventDefault();
     const month = document.getElementById('analysisMonth').value;
@@ -729,6 +820,7 @@ async function requestPublicDataComparison(event) {
 
         // 6. 차트 렌더링
         renderComparisonChart(combinedData);
+        renderComparisonPercentiles(aggregatedData);
         document.getElementById('comparisonResult').classList.remove('hidden');
         showToast('success', '비교 완료', '또래 평균 소비 내역 비교가 완료되었습니다.');
 
@@ -900,6 +992,61 @@ function renderComparisonChart(data) {
     });
 }
 
+/**
+ * 카테고리별 또래 분포(p25/p50/p75/p90)와 내 백분위를 표로 렌더링하는 함수
+ */
+function renderComparisonPercentiles(aggregatedData) {
+    const container = document.getElementById('comparisonPercentiles');
+    if (!container) return;
+
+    const distribution = aggregatedData && aggregatedData.categoryDistribution;
+    if (!distribution || Object.keys(distribution).length === 0) {
+        container.innerHTML = '';
+        return;
+    }
+
+    const won = value => value == null ? '-' : new Intl.NumberFormat('ko-KR').format(value) + '원';
+
+    let rows = '';
+    for (const [category, d] of Object.entries(distribution)) {
+        const myPosition = d.myPercentile == null
+            ? '<span class="text-gray-400">지출 없음</span>'
+            : `하위 <span class="font-semibold text-indigo-600">${d.myPercentile}%</span>`;
+        rows += `
+            <tr class="border-t">
+                <td class="px-3 py-2 font-medium">${category}</td>
+                <td class="px-3 py-2 text-right">${won(d.p25)}</td>
+                <td class="px-3 py-2 text-right">${won(d.p50)}</td>
+                <td class="px-3 py-2 text-right">${won(d.p75)}</td>
+                <td class="px-3 py-2 text-right">${won(d.p90)}</td>
+                <td class="px-3 py-2 text-right">${won(d.myAmount)}</td>
+                <td class="px-3 py-2 text-right">${myPosition}</td>
+            </tr>
+        `;
+    }
+
+    container.innerHTML = `
+        <h4 class="font-semibold text-lg mb-2">카테고리별 또래 분포</h4>
+        <div class="overflow-x-auto">
+            <table class="min-w-full text-sm">
+                <thead class="bg-gray-50 text-gray-600">
+                    <tr>
+                        <th class="px-3 py-2 text-left">카테고리</th>
+                        <th class="px-3 py-2 text-right">하위 25%</th>
+                        <th class="px-3 py-2 text-right">중앙값</th>
+                        <th class="px-3 py-2 text-right">상위 25%</th>
+                        <th class="px-3 py-2 text-right">상위 10%</th>
+                        <th class="px-3 py-2 text-right">내 소비</th>
+                        <th class="px-3 py-2 text-right">내 위치</th>
+                    </tr>
+                </thead>
+                <tbody>${rows}</tbody>
+            </table>
+        </div>
+        <p class="text-xs text-gray-500 mt-2">또래 ${new Intl.NumberFormat('ko-KR').format(aggregatedData.userCount)}명 중 해당 카테고리에 지출한 사용자 기준 추정값입니다.</p>
+    `;
+}
+
 /**
  * 비교할 소비 데이터가 없을 때 표시하는 UI
  */
@@ -23,17 +23,28 @@ document.addEventListener('DOMContentLoaded', function() {
         return response;
     }
 
+    // SSE 로 알림을 받고 있는지 여부 (연결 중이면 개수는 서버가 보내줌)
+    let streamConnected = false;
+    let unreadCount = 0;
+
+    function renderUnreadCount(count) {
+        unreadCount = count;
+        notificationCountSpan.textContent = count > 99 ? '99+' : count.toString();
+        if (count > 0) {
+            notificationCountSpan.classList.remove('hidden');
+        } else {
+            notificationCountSpan.classList.add('hidden');
+        }
+    }
+
     // 읽지 않은 알림 개수 업데이트
     async function updateUnreadCount() {
+        if (streamConnected) {
+            return; // 읽음 처리 후 개수는 스트림의 count 이벤트로 갱신됨
+        }
         try {
             const response = await csrfFetch('/api/notifications/unread/count');
-            const count = await response.json();
-            notificationCountSpan.textContent = count > 99 ? '99+' : count.toString();
-            if (count > 0) {
-                notificationCountSpan.classList.remove('hidden');
-            } else {
-                notificationCountSpan.classList.add('hidden');
-            }
+            renderUnreadCount(await response.json());
         } catch (error) {
             console.error('Failed to fetch unread notification count:', error);
             notificationCountSpan.classList.add('hidden');
@@ -121,8 +132,41 @@ document.addEventListener('DOMContentLoaded', function() {
         }
     });
 
+    // 알림 실시간 수신 (연결이 끊기면 EventSource 가 자동으로 다시 연결)
+    function connectNotificationStream() {
+        const source = new EventSource('/api/notifications/stream');
+
+        source.addEventListener('open', () => {
+            streamConnected = true;
+        });
+
+        // 연결 직후 및 읽음 처리 후 읽지 않은 개수
+        source.addEventListener('count', (event) => {
+            renderUnreadCount(Number(event.data));
+        });
+
+        // 새 알림
+        source.addEventListener('notification', () => {
+            renderUnreadCount(unreadCount + 1);
+            if (!notificationDropdown.classList.contains('hidden')) {
+                loadNotifications();
+            }
+        });
+
+        source.addEventListener('error', () => {
+            streamConnected = false;
+            if (source.readyState === EventSource.CLOSED) {
+                updateUnreadCount(); // 재연결하지 않는 경우(로그아웃 등) 한 번만 직접 조회
+            }
+        });
+    }
+
     // 페이지 로드 시 읽지 않은 알림 개수 업데이트
     if (isAuthenticated) { // isAuthenticated는 Thymeleaf에서 주입된 전역 변수
-        updateUnreadCount();
+        if (window.EventSource) {
+            connectNotificationStream();
+        } else {
+            updateUnreadCount();
+        }
     }
 });
\ No newline at end of file
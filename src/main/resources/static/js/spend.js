@@ -67,7 +67,13 @@ async function getSpendings() {
     try {
         const data = await csrfFetch(url);
         if (data) {
-            renderSpendings(data);
+            // 월을 지정하지 않으면 서버가 페이지 단위({items, nextCursor, hasNext})로 응답
+            if (Array.isArray(data)) {
+                renderSpendings(data);
+            } else {
+                renderSpendings(data.items);
+                renderLoadMore(data);
+            }
         }
     } catch (err) {
         if (err.status === 401) {
@@ -81,6 +87,33 @@ async function getSpendings() {
     }
 }
 
+// 다음 페이지 불러오기 버튼
+function renderLoadMore(page) {
+    const list = document.getElementById('spendingList');
+    const existing = document.getElementById('loadMoreBtn');
+    if (existing) existing.remove();
+    if (!page.hasNext) return;
+
+    const btn = document.createElement('button');
+    btn.id = 'loadMoreBtn';
+    btn.className = 'w-full py-2 text-sm text-blue-600 hover:underline';
+    btn.textContent = '더 보기';
+    btn.addEventListener('click', async () => {
+        btn.disabled = true;
+        try {
+            const next = await csrfFetch(`${apiUrl}?category=${filterCategory}&cursor=${encodeURIComponent(page.nextCursor)}`);
+            if (next) {
+                renderSpendings(next.items, true);
+                renderLoadMore(next);
+            }
+        } catch (err) {
+            console.error("Failed to fetch next page:", err);
+            btn.disabled = false;
+        }
+    });
+    list.appendChild(btn);
+}
+
 function renderUnauthorized(elementId, message) {
     const container = document.getElementById(elementId);
     if (!container) return;
@@ -93,9 +126,9 @@ function renderUnauthorized(elementId, message) {
 }
 
 
-function renderSpendings(data) {
+function renderSpendings(data, append = false) {
     const list = document.getElementById('spendingList');
-    list.innerHTML = '';
+    if (!append) list.innerHTML = '';
 
     data.forEach(sp => {
         const item = document.createElement('div');
@@ -0,0 +1,270 @@
+package kopo.newproject.controller;
+
+import kopo.newproject.config.MongoConfig;
+import kopo.newproject.dto.SpendingFileFormat;
+import kopo.newproject.dto.SpendingImportResultDTO;
+import kopo.newproject.repository.entity.mongo.SpendingEntity;
+import kopo.newproject.service.impl.SpendingExportService;
+import kopo.newproject.service.impl.SpendingImportService;
+import kopo.newproject.service.impl.SpendingRollupService;
+import kopo.newproject.service.impl.SpendingService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * /spendingAPI/export 의 스트리밍 내보내기가 건수와 관계없이 일정한 힙만 사용하는지 확인합니다.
+ * 100만 건을 저장한 뒤 컨트롤러가 반환한 StreamingResponseBody 를 버리는 출력 스트림에 기록하면서,
+ * 주기적으로 GC 를 실행해 살아 있는 힙 크기(메모리 풀의 collection usage)의 최댓값을 측정합니다.
+ * 결과를 메모리에 모으면 출력만 60MB 이상이므로 한도(64MB)를 넘게 됩니다.
+ * 100만 건 측정은 시간이 오래 걸리므로 benchmark 태그로 분리되어 있습니다. (./gradlew benchmarkTest)
+ */
+@DataMongoTest
+@Testcontainers(disabledWithoutDocker = true)
+class SpendingExportHeapTest {
+
+    private static final int ROWS = 1_000_000;
+    private static final int SEED_BATCH = 10_000;
+    private static final long MAX_LIVE_HEAP_GROWTH = 64L * 1024 * 1024;
+    private static final long SAMPLE_INTERVAL_MS = 250;
+
+    @Container
+    @ServiceConnection
+    static MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+
+    // 애플리케이션 클래스의 전체 컴포넌트 스캔 대신 내보내기에 필요한 빈만 사용
+    @SpringBootConfiguration
+    @EnableMongoRepositories(basePackages = "kopo.newproject.repository.mongo")
+    @ImportAutoConfiguration({JacksonAutoConfiguration.class, ValidationAutoConfiguration.class})
+    @Import({MongoConfig.class, SpendingService.class, SpendingRollupService.class,
+            SpendingImportService.class, SpendingExportService.class, SpendingAPIController.class})
+    static class TestConfig {
+    }
+
+    @Autowired
+    private SpendingAPIController spendingAPIController;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private SpendingImportService spendingImportService;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.dropCollection(SpendingEntity.class);
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("export-user", null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @Tag("benchmark")
+    void exportOfOneMillionRowsKeepsHeapBounded() throws Exception {
+        seed(ROWS);
+
+        StreamingResponseBody body = exportBody("CSV", null, null);
+
+        long baseline = liveHeapAfterGc();
+        AtomicLong peak = new AtomicLong(baseline);
+        AtomicBoolean done = new AtomicBoolean(false);
+        // G1 의 old 영역 collection usage 는 mixed/full GC 때만 갱신되므로 측정 시마다 GC 를 실행
+        Thread sampler = new Thread(() -> {
+            while (!done.get()) {
+                peak.accumulateAndGet(liveHeapAfterGc(), Math::max);
+                try {
+                    Thread.sleep(SAMPLE_INTERVAL_MS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+        sampler.start();
+
+        CountingOutputStream out = new CountingOutputStream();
+        try {
+            body.writeTo(out);
+        } finally {
+            done.set(true);
+            sampler.join();
+        }
+
+        peak.accumulateAndGet(liveHeapAfterGc(), Math::max); // 기록 직후 남아 있는 힙
+        assertThat(out.lines).isEqualTo(ROWS + 1); // 헤더 포함
+        assertThat(peak.get() - baseline)
+                .as("export of %d rows (%d bytes) grew the live heap by %d bytes", ROWS, out.bytes, peak.get() - baseline)
+                .isLessThan(MAX_LIVE_HEAP_GROWTH);
+    }
+
+    @Test
+    void rejectsRangeWhereFromIsAfterTo() {
+        ResponseEntity<?> response = spendingAPIController.exportSpendings("2025-07-01", "2025-06-01", null,
+                SpendingFileFormat.CSV, false);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void neutralisesFormulaCellsInCsv() throws Exception {
+        mongoTemplate.insert(SpendingEntity.builder()
+                .userId("export-user")
+                .name("=HYPERLINK(\"http://evil\")")
+                .category("@식비")
+                .amount(BigDecimal.valueOf(-5000))
+                .date(LocalDate.of(2025, 6, 1))
+                .description("+1")
+                .build());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportBody("CSV", null, null).writeTo(out);
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+
+        assertThat(lines[1]).isEqualTo("\"'=HYPERLINK(\"\"http://evil\"\")\",2025-06-01,'@식비,-5000,'+1");
+    }
+
+    @Test
+    void exportedCsvCanBeImportedAsIs() throws Exception {
+        SpendingEntity original = SpendingEntity.builder()
+                .userId("export-user")
+                .name("=SUM(A1)")
+                .category("'식비")
+                .amount(BigDecimal.valueOf(12000))
+                .date(LocalDate.of(2025, 6, 1))
+                .description("첫 줄\n둘째 줄, \"인용\"")
+                .build();
+        mongoTemplate.insert(original);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportBody("CSV", null, null).writeTo(out);
+
+        SpendingImportResultDTO result = spendingImportService.importSpendings("import-user",
+                new ByteArrayInputStream(out.toByteArray()), SpendingFileFormat.CSV);
+        assertThat(result.failedRows()).as("errors: %s", result.errors()).isZero();
+        assertThat(result.importedRows()).isEqualTo(1);
+
+        SpendingEntity imported = mongoTemplate.findOne(Query.query(Criteria.where("userId").is("import-user")), SpendingEntity.class);
+        assertThat(imported).isNotNull();
+        assertThat(imported.getName()).isEqualTo(original.getName());
+        assertThat(imported.getCategory()).isEqualTo(original.getCategory());
+        assertThat(imported.getDescription()).isEqualTo(original.getDescription());
+        assertThat(imported.getAmount()).isEqualByComparingTo(original.getAmount());
+        assertThat(imported.getDate()).isEqualTo(original.getDate());
+    }
+
+    private StreamingResponseBody exportBody(String format, String from, String to) {
+        ResponseEntity<?> response = spendingAPIController.exportSpendings(from, to, null,
+                SpendingFileFormat.valueOf(format), false);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return (StreamingResponseBody) response.getBody();
+    }
+
+    private void seed(int rows) {
+        LocalDate start = LocalDate.of(2020, 1, 1);
+        List<SpendingEntity> batch = new ArrayList<>(SEED_BATCH);
+        for (int i = 0; i < rows; i++) {
+            batch.add(SpendingEntity.builder()
+                    .userId("export-user")
+                    .name("지출 " + i)
+                    .category(i % 3 == 0 ? "식비" : "교통")
+                    .amount(BigDecimal.valueOf(1000L + i % 50_000))
+                    .date(start.plusDays(i % 2000))
+                    .description("설명 " + i)
+                    .build());
+            if (batch.size() == SEED_BATCH) {
+                insert(batch);
+            }
+        }
+        insert(batch);
+    }
+
+    private void insert(List<SpendingEntity> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, SpendingEntity.class).insert(batch).execute();
+        batch.clear();
+    }
+
+    private static long liveHeapAfterGc() {
+        System.gc();
+        return liveHeap();
+    }
+
+    // 각 힙 메모리 풀의 마지막 GC 직후 사용량 합계 (아직 수거되지 않은 쓰레기는 제외)
+    private static long liveHeap() {
+        long used = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            MemoryUsage usage = pool.getType() == MemoryType.HEAP ? pool.getCollectionUsage() : null;
+            if (usage != null) {
+                used += usage.getUsed();
+            }
+        }
+        return used;
+    }
+
+    // 내용은 버리고 바이트 수와 줄 수만 세는 출력 스트림
+    private static class CountingOutputStream extends OutputStream {
+        long bytes;
+        long lines;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+            if (b == '\n') {
+                lines++;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+            for (int i = off; i < off + len; i++) {
+                if (b[i] == '\n') {
+                    lines++;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,319 @@
+package kopo.newproject.repository.mongo;
+
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import kopo.newproject.config.MongoConfig;
+import kopo.newproject.config.MongoIndexConfig;
+import kopo.newproject.repository.entity.mongo.AIAnalysisEntity;
+import kopo.newproject.repository.entity.mongo.AggregatedSpendingEntity;
+import kopo.newproject.repository.entity.mongo.AnalysisJobEntity;
+import kopo.newproject.repository.entity.mongo.SpendingEntity;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Mongo 리포지토리(지출, AI 분석, 분석 작업, 그룹 집계)의 조회/집계가 MongoIndexConfig 로 만든 인덱스를 사용하는지 explain 으로 확인합니다.
+ * 리포지토리 메서드가 실제로 보낸 find/aggregate 명령을 가로채 그대로 explain 하므로,
+ * 쿼리 메서드가 바뀌어 인덱스를 타지 못하면(COLLSCAN) 테스트가 실패합니다.
+ * (count 쿼리는 드라이버가 aggregate 로 보내므로 함께 검사되며, deleteBy 는 같은 조건의 findBy 로 검사합니다.)
+ */
+@DataMongoTest
+@Testcontainers(disabledWithoutDocker = true)
+class MongoRepositoryExplainTest {
+
+    @Container
+    @ServiceConnection
+    static MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+
+    // 애플리케이션 클래스의 전체 컴포넌트 스캔 대신 Mongo 관련 설정만 사용
+    @SpringBootConfiguration
+    @EnableMongoRepositories(basePackageClasses = SpendingRepository.class)
+    @Import({MongoConfig.class, MongoIndexConfig.class})
+    static class TestConfig {
+
+        @Bean
+        CapturingCommandListener capturingCommandListener() {
+            return new CapturingCommandListener();
+        }
+
+        @Bean
+        MongoClientSettingsBuilderCustomizer commandListenerCustomizer(CapturingCommandListener listener) {
+            return builder -> builder.addCommandListener(listener);
+        }
+    }
+
+    // 검사 대상 컬렉션에 보낸 find/aggregate 명령 기록
+    static class CapturingCommandListener implements CommandListener {
+
+        private static final Set<String> COLLECTIONS = Set.of("spending", "AI_analysis", "AI_analysis_job", "aggregated_spending");
+
+        final List<BsonDocument> commands = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void commandStarted(CommandStartedEvent event) {
+            String name = event.getCommandName();
+            if (("find".equals(name) || "aggregate".equals(name))
+                    && event.getCommand().isString(name)
+                    && COLLECTIONS.contains(event.getCommand().getString(name).getValue())) {
+                commands.add(event.getCommand().clone());
+            }
+        }
+    }
+
+    @Autowired
+    private SpendingRepository spendingRepository;
+
+    @Autowired
+    private AIAnalysisRepository aiAnalysisRepository;
+
+    @Autowired
+    private AnalysisJobRepository analysisJobRepository;
+
+    @Autowired
+    private AggregatedSpendingRepository aggregatedSpendingRepository;
+
+    @Autowired
+    private MongoIndexConfig mongoIndexConfig;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private CapturingCommandListener listener;
+
+    private final LocalDate from = LocalDate.of(2025, 6, 1);
+    private final LocalDate to = LocalDate.of(2025, 7, 1);
+    private final YearMonth month = YearMonth.of(2025, 6);
+    private final LocalDateTime monthStart = month.atDay(1).atStartOfDay();
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.dropCollection(SpendingEntity.class);
+        mongoTemplate.dropCollection(AIAnalysisEntity.class);
+        mongoTemplate.dropCollection(AnalysisJobEntity.class);
+        mongoTemplate.dropCollection(AggregatedSpendingEntity.class);
+        mongoIndexConfig.ensureIndexes();
+
+        List<SpendingEntity> rows = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            rows.add(SpendingEntity.builder()
+                    .userId("user" + (i % 10))
+                    .name("지출" + i)
+                    .category(i % 2 == 0 ? "식비" : "교통")
+                    .amount(BigDecimal.valueOf(1000L + i))
+                    .date(from.plusDays(i % 30))
+                    .build());
+        }
+        spendingRepository.saveAll(rows);
+
+        List<AIAnalysisEntity> analyses = new ArrayList<>();
+        List<AnalysisJobEntity> jobs = new ArrayList<>();
+        AnalysisJobEntity.Status[] statuses = AnalysisJobEntity.Status.values();
+        for (int i = 0; i < 100; i++) {
+            analyses.add(AIAnalysisEntity.builder()
+                    .userId("user" + (i % 10))
+                    .month(month.minusMonths(i % 3).toString())
+                    .result("{}")
+                    .inputHash("hash" + (i % 5))
+                    .createdAt(monthStart.plusHours(i))
+                    .build());
+            jobs.add(AnalysisJobEntity.builder()
+                    .userId("user" + (i % 10))
+                    .month(month.toString())
+                    .status(statuses[i % statuses.length])
+                    .createdAt(monthStart.plusHours(i))
+                    .build());
+        }
+        aiAnalysisRepository.saveAll(analyses);
+        analysisJobRepository.saveAll(jobs);
+
+        List<AggregatedSpendingEntity> groups = new ArrayList<>();
+        for (String gender : List.of("M", "F")) {
+            for (String ageGroup : List.of("20대", "30대", "40대")) {
+                for (int m = 0; m < 3; m++) {
+                    YearMonth groupMonth = month.minusMonths(m);
+                    groups.add(AggregatedSpendingEntity.builder()
+                            .id(groupMonth + "_" + gender + "_" + ageGroup)
+                            .month(groupMonth)
+                            .gender(gender)
+                            .ageGroup(ageGroup)
+                            .userCount(10)
+                            .build());
+                }
+            }
+        }
+        aggregatedSpendingRepository.saveAll(groups);
+        listener.commands.clear();
+    }
+
+    @Test
+    void findByUserIdUsesIndex() {
+        assertIndexed(() -> spendingRepository.findByUserId("user1"));
+    }
+
+    @Test
+    void findByUserIdAndCategoryUsesIndex() {
+        assertIndexed(() -> spendingRepository.findByUserIdAndCategory("user1", "식비"));
+    }
+
+    @Test
+    void findByUserIdAndDateBetweenUsesIndex() {
+        assertIndexed(() -> spendingRepository.findByUserIdAndDateBetween("user1", from, to));
+    }
+
+    @Test
+    void findByUserIdAndDateBetweenAndCategoryUsesIndex() {
+        assertIndexed(() -> spendingRepository.findByUserIdAndDateBetweenAndCategory("user1", from, to, "식비"));
+    }
+
+    @Test
+    void findByUserIdAndDateRangeUsesIndex() {
+        assertIndexed(() -> spendingRepository.findByUserIdAndDateRange("user1", from, to));
+    }
+
+    @Test
+    void sumAmountByDateBetweenUsesIndex() {
+        assertIndexed(() -> spendingRepository.sumAmountByDateBetween("user1", from, to));
+    }
+
+    @Test
+    void sumAmountByDateBetweenAndCategoryUsesIndex() {
+        assertIndexed(() -> spendingRepository.sumAmountByDateBetweenAndCategory("user1", from, to, "식비"));
+    }
+
+    @Test
+    void findAnalysisByUserIdAndMonthUsesIndex() {
+        assertIndexed(() -> aiAnalysisRepository.findByUserIdAndMonth("user1", month.toString()));
+    }
+
+    @Test
+    void findLatestAnalysisByUserIdUsesIndex() {
+        assertIndexed(() -> aiAnalysisRepository.findTopByUserIdOrderByCreatedAtDesc("user1"));
+    }
+
+    @Test
+    void findAnalysisHistoryUsesIndex() {
+        assertIndexed(() -> aiAnalysisRepository.findByUserIdAndMonthOrderByCreatedAtDesc("user1", month.toString()));
+    }
+
+    @Test
+    void findAnalysisByIdAndUserIdUsesIndex() {
+        String id = aiAnalysisRepository.findTopByUserIdOrderByCreatedAtDesc("user1").orElseThrow().getId();
+        listener.commands.clear();
+        assertIndexed(() -> aiAnalysisRepository.findByIdAndUserId(id, "user1"));
+    }
+
+    @Test
+    void findCachedAnalysisByInputHashUsesIndex() {
+        assertIndexed(() -> aiAnalysisRepository.findTopByUserIdAndMonthAndInputHashOrderByCreatedAtDesc(
+                "user1", month.toString(), "hash1"));
+    }
+
+    @Test
+    void countAnalysesByUserIdAndCreatedAtUsesIndex() {
+        assertIndexed(() -> aiAnalysisRepository.countByUserIdAndCreatedAtBetween("user1", monthStart, monthStart.plusMonths(1)));
+    }
+
+    @Test
+    void countAnalysesByUserIdAndMonthAndCreatedAtUsesIndex() {
+        Date start = Date.from(monthStart.atZone(ZoneId.systemDefault()).toInstant());
+        Date end = Date.from(monthStart.plusMonths(1).atZone(ZoneId.systemDefault()).toInstant());
+        assertIndexed(() -> aiAnalysisRepository.countByUserIdAndMonthAndCreatedAtBetween("user1", month.toString(), start, end));
+    }
+
+    @Test
+    void findAnalysisJobByIdAndUserIdUsesIndex() {
+        String id = analysisJobRepository.findAll().get(0).getId();
+        listener.commands.clear();
+        assertIndexed(() -> analysisJobRepository.findByIdAndUserId(id, "user1"));
+    }
+
+    @Test
+    void findUnfinishedAnalysisJobsUsesIndex() {
+        assertIndexed(() -> analysisJobRepository.findByStatusInOrderByCreatedAtAsc(
+                List.of(AnalysisJobEntity.Status.QUEUED, AnalysisJobEntity.Status.RUNNING)));
+    }
+
+    @Test
+    void findAggregatedSpendingByGroupUsesIndex() {
+        assertIndexed(() -> aggregatedSpendingRepository.findByMonthAndGenderAndAgeGroup(month, "M", "20대"));
+    }
+
+    @Test
+    void findAggregatedSpendingByMonthUsesIndex() {
+        assertIndexed(() -> aggregatedSpendingRepository.findByMonth(month));
+    }
+
+    // 리포지토리 호출이 보낸 명령을 모두 explain 하여 COLLSCAN 단계가 없는지 확인
+    private void assertIndexed(Runnable repositoryCall) {
+        repositoryCall.run();
+        assertThat(listener.commands).as("검사 대상 컬렉션 조회 명령").isNotEmpty();
+
+        for (BsonDocument command : listener.commands) {
+            BsonDocument explain = new BsonDocument("explain", withoutSessionFields(command))
+                    .append("verbosity", new BsonString("queryPlanner"));
+            BsonDocument plan = mongoTemplate.getDb().runCommand(explain, BsonDocument.class);
+
+            assertThat(stages(plan, new ArrayList<>()))
+                    .as("explain of %s", command.toJson())
+                    .isNotEmpty()
+                    .doesNotContain("COLLSCAN");
+        }
+    }
+
+    // 드라이버가 붙인 세션/클러스터 필드($db, lsid 등)는 explain 대상 명령에서 제외
+    private static BsonDocument withoutSessionFields(BsonDocument command) {
+        BsonDocument result = new BsonDocument();
+        command.forEach((key, value) -> {
+            if (!key.startsWith("$") && !"lsid".equals(key) && !"txnNumber".equals(key)) {
+                result.append(key, value);
+            }
+        });
+        return result;
+    }
+
+    // explain 결과(find/aggregate, 클래식/SBE 엔진 형식 모두)에서 모든 stage 이름을 수집
+    private static List<String> stages(BsonValue value, List<String> result) {
+        if (value.isDocument()) {
+            BsonDocument document = value.asDocument();
+            BsonValue stage = document.get("stage");
+            if (stage != null && stage.isString()) {
+                result.add(stage.asString().getValue());
+            }
+            document.values().forEach(v -> stages(v, result));
+        } else if (value.isArray()) {
+            BsonArray array = value.asArray();
+            array.forEach(v -> stages(v, result));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,83 @@
+package kopo.newproject.service.impl;
+
+import kopo.newproject.dto.MonthlyReportDTO;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 월간 리포트 메일 템플릿의 렌더링 처리량을 측정합니다. (월말 일괄 발송의 렌더링 스레드 수 산정용)
+ * 코어 수만큼의 스레드에서 샘플 리포트를 반복 렌더링하여 초당/코어당 렌더링 수를 로그로 남깁니다.
+ * 스프링 컨텍스트 없이 렌더러를 직접 생성하므로 실제 발송 경로와 같이 AOP 를 거치지 않습니다.
+ * 측정용이므로 benchmark 태그로 분리되어 있습니다. (./gradlew benchmarkTest)
+ */
+@Tag("benchmark")
+class MailTemplateRendererBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(MailTemplateRendererBenchmarkTest.class);
+
+    private static final int WARMUP_ITERATIONS = 500;
+    private static final int ITERATIONS = 20_000;
+
+    private static MailTemplateRenderer renderer;
+
+    @BeforeAll
+    static void setUp() {
+        renderer = new MailTemplateRenderer();
+        renderer.init();
+        MonthlyReportDTO report = MailTemplateRenderer.sampleReport();
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            renderer.renderMonthlyReport(report);
+        }
+    }
+
+    @Test
+    void monthlyReportRenderingThroughput() throws Exception {
+        int processors = Runtime.getRuntime().availableProcessors();
+        int threads = Math.min(processors, ITERATIONS);
+        MonthlyReportDTO report = MailTemplateRenderer.sampleReport();
+        AtomicLong totalLength = new AtomicLong();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Callable<Void>> tasks = new ArrayList<>(threads);
+            for (int t = 0; t < threads; t++) {
+                int share = ITERATIONS / threads + (t < ITERATIONS % threads ? 1 : 0);
+                tasks.add(() -> {
+                    for (int i = 0; i < share; i++) {
+                        totalLength.addAndGet(renderer.renderMonthlyReport(report).length());
+                    }
+                    return null;
+                });
+            }
+
+            long startNanos = System.nanoTime();
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get(); // 렌더링 중 예외가 있으면 테스트 실패
+            }
+            long wallTimeMs = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+
+            double rendersPerSecond = ITERATIONS * 1000.0 / wallTimeMs;
+            log.info("월간 리포트 렌더링 측정: {}회, 스레드 {}개 (코어 {}개), {}ms, 초당 {}건, 코어당 초당 {}건, 평균 {}자",
+                    ITERATIONS, threads, processors, wallTimeMs, String.format("%.1f", rendersPerSecond),
+                    String.format("%.1f", rendersPerSecond / threads), totalLength.get() / ITERATIONS);
+
+            assertThat(totalLength.get() / ITERATIONS).isPositive();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}